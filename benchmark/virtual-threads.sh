@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 latency of the POST /notifications fan-out with
+# platform threads and with virtual threads (spring.threads.virtual.enabled),
+# with the container limited to the CPU we get in k8s/deployment.yaml.
+#
+# Requirements: docker, hey (https://github.com/rakyll/hey) and curl.
+#   TOKEN         bearer token with the SendNotification role (required)
+#   ENV_FILE      docker env file pointing the app at its user service,
+#                 Keycloak and SMTP server (optional)
+#   CPUS, MEMORY, DURATION, CONCURRENCY, PAYLOAD, PORT override the defaults
+#   RESULTS       file the results are appended to
+#                 (default benchmark/virtual-threads-results.md)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+: "${TOKEN:?set TOKEN to a bearer token with the SendNotification role}"
+IMAGE=${IMAGE:-notification-service:benchmark}
+CPUS=${CPUS:-0.3}
+MEMORY=${MEMORY:-1g}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-20s}
+CONCURRENCY=${CONCURRENCY:-50}
+PAYLOAD=${PAYLOAD:-benchmark/fanout-payload.json}
+PORT=${PORT:-18080}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-18081}
+URL="http://localhost:${PORT}/api/v1"
+RESULTS=${RESULTS:-benchmark/virtual-threads-results.md}
+
+docker build -q -t "$IMAGE" . >/dev/null
+
+run() {
+  local mode=$1 enabled=$2 name="notification-benchmark-$1" out
+  local env_args=()
+  if [[ -n "${ENV_FILE:-}" ]]; then
+    env_args=(--env-file "$ENV_FILE")
+  fi
+
+  docker run -d --rm --name "$name" --cpus "$CPUS" --memory "$MEMORY" -p "$PORT:8080" \
+    -p "$MANAGEMENT_PORT:8081" \
+    -e VIRTUAL_THREADS_ENABLED="$enabled" "${env_args[@]}" "$IMAGE" >/dev/null
+  trap 'docker stop "'"$name"'" >/dev/null 2>&1 || true' EXIT
+
+  for _ in $(seq 1 120); do
+    curl -sf "http://localhost:${MANAGEMENT_PORT}/actuator/health" >/dev/null && break
+    sleep 1
+  done
+
+  local load=(-c "$CONCURRENCY" -m POST -T application/json
+    -H "Authorization: Bearer $TOKEN" -D "$PAYLOAD" "$URL/notifications")
+  hey -z "$WARMUP" "${load[@]}" >/dev/null
+  out=$(hey -z "$DURATION" "${load[@]}")
+
+  printf '| %s | %s | %ss | %s |\n' "$mode" \
+    "$(awk '/Requests\/sec/ {print $2}' <<<"$out")" \
+    "$(awk '/ 99% in / {print $3}' <<<"$out")" \
+    "$(awk '/\[2[0-9][0-9]\]/ {ok += $2} /\[[45][0-9][0-9]\]/ {err += $2}
+      END {printf "ok=%d errors=%d", ok, err}' <<<"$out")" | tee -a "$RESULTS"
+
+  docker stop "$name" >/dev/null
+  trap - EXIT
+}
+
+{
+  printf '\n### %s, commit %s\n\n' "$(date -u +%Y-%m-%d)" "$(git rev-parse --short HEAD)"
+  printf 'cpus=%s memory=%s duration=%s concurrency=%s payload=%s\n\n' \
+    "$CPUS" "$MEMORY" "$DURATION" "$CONCURRENCY" "$PAYLOAD"
+  printf '| mode | requests/sec | p99 | responses |\n|---|---|---|---|\n'
+} | tee -a "$RESULTS"
+run platform false
+run virtual true
@@ -0,0 +1,71 @@
+package com.ase.notificationservice.entities;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.ase.notificationservice.enums.NotificationType;
+import com.ase.notificationservice.enums.NotifyType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Cost of serializing a page of notifications the way the REST controllers
+ * return it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationSerializationBenchmark {
+
+  @Param({"1", "50", "500"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+  private List<Notification> notifications;
+
+  @Setup
+  public void setUp() {
+    // same date format as the Boot-configured mapper of the controllers
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    Instant now = Instant.now();
+    notifications = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      notifications.add(Notification.builder()
+          .id("notification-" + i)
+          .userId("user-" + i)
+          .title("Klausurergebnisse veröffentlicht")
+          .shortDescription("Die Ergebnisse der Klausur sind online.")
+          .message("Die Ergebnisse der Klausur Software Engineering sind jetzt online.")
+          .receivedAt(now)
+          .readAt(i % 2 == 0 ? null : now)
+          .notifyType(NotifyType.All)
+          .notificationType(NotificationType.Info)
+          .build());
+    }
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(notifications);
+  }
+}
@@ -0,0 +1,96 @@
+package com.ase.notificationservice.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import com.ase.notificationservice.Application;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.NotificationType;
+import com.ase.notificationservice.enums.NotifyType;
+
+/**
+ * Cost of inserting a fan-out batch and of reading an inbox page against the
+ * embedded H2 database of the test profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationRepositoryBenchmark {
+  private static final String INBOX_USER = "inbox-user";
+  private static final int INBOX_SIZE = 1_000;
+  private static final int PAGE_SIZE = 50;
+
+  @Param({"1", "100"})
+  private int batchSize;
+
+  private ConfigurableApplicationContext context;
+  private NotificationRepository repository;
+  private long batches;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(Application.class)
+        .profiles("test")
+        .run("--server.port=0", "--logging.level.root=WARN");
+    repository = context.getBean(NotificationRepository.class);
+    repository.saveAll(notifications(INBOX_USER, INBOX_SIZE));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Notification> insertBatch() {
+    return repository.saveAll(notifications("batch-" + batches++, batchSize));
+  }
+
+  @Benchmark
+  public Slice<Notification> inboxPage() {
+    return repository.findInboxPage(INBOX_USER, Instant.EPOCH, PageRequest.of(0, PAGE_SIZE));
+  }
+
+  @Benchmark
+  public long countUnread() {
+    return repository.countUnreadByUserId(INBOX_USER);
+  }
+
+  private static List<Notification> notifications(String userId, int count) {
+    Instant now = Instant.now();
+    List<Notification> notifications = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      notifications.add(Notification.builder()
+          .userId(userId)
+          .title("Benchmark " + i)
+          .message("Die Ergebnisse der Klausur Software Engineering sind jetzt online.")
+          .receivedAt(now.minusSeconds(i))
+          .readAt(i % 2 == 0 ? null : now)
+          .notifyType(NotifyType.UI)
+          .notificationType(NotificationType.Info)
+          .build());
+    }
+    return notifications;
+  }
+}
@@ -0,0 +1,58 @@
+package com.ase.notificationservice.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Cost of mapping the groups claim of a token to authorities, paid on every
+ * authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthConverterBenchmark {
+
+  @Param({"1", "10", "50"})
+  private int groups;
+
+  private JwtAuthConverter converter;
+  private Jwt jwt;
+
+  @Setup
+  public void setUp() {
+    List<String> claim = new ArrayList<>(groups);
+    for (int i = 0; i < groups; i++) {
+      claim.add("group-" + i);
+    }
+
+    converter = new JwtAuthConverter();
+    jwt = Jwt.withTokenValue("token")
+        .header("alg", "none")
+        .subject("user-1")
+        .claim("groups", claim)
+        .build();
+  }
+
+  @Benchmark
+  public Collection<GrantedAuthority> convert() {
+    return converter.convert(jwt);
+  }
+}
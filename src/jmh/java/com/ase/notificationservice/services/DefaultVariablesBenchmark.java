@@ -0,0 +1,59 @@
+package com.ase.notificationservice.services;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.NotificationType;
+
+/**
+ * Cost of building the template variables of a notification email, which
+ * splits the message into paragraphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefaultVariablesBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int paragraphs;
+
+  private Notification notification;
+
+  @Setup
+  public void setUp() {
+    StringBuilder message = new StringBuilder();
+    for (int i = 0; i < paragraphs; i++) {
+      if (i > 0) {
+        message.append("\n \n");
+      }
+      message.append("Absatz ").append(i)
+          .append(": Die Einsicht findet am Freitag im Raum A 1.02 statt.");
+    }
+
+    notification = Notification.builder()
+        .title("Systemhinweis")
+        .shortDescription("Wartungsarbeiten am Wochenende")
+        .message(message.toString())
+        .notificationType(NotificationType.Warning)
+        .build();
+  }
+
+  @Benchmark
+  public Map<String, Object> buildDefaultVariables() {
+    return NotificationService.buildDefaultVariables(notification);
+  }
+}
@@ -0,0 +1,84 @@
+package com.ase.notificationservice.services;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import com.ase.notificationservice.components.DeliveryMetrics;
+import com.ase.notificationservice.dtos.EmailNotificationRequestDto;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.EmailTemplate;
+import com.ase.notificationservice.enums.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of rendering one email: the Thymeleaf template and the plain text part
+ * derived from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+  private EmailService emailService;
+  private EmailNotificationRequestDto request;
+  private String html;
+
+  @Setup
+  public void setUp() {
+    ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+    resolver.setPrefix("templates/email/");
+    resolver.setSuffix(".html");
+    resolver.setTemplateMode(TemplateMode.HTML);
+    resolver.setCharacterEncoding("UTF-8");
+    resolver.setCacheable(true);
+
+    SpringTemplateEngine engine = new SpringTemplateEngine();
+    engine.setTemplateResolver(resolver);
+    emailService = new EmailService(
+        new JavaMailSenderImpl(), engine, new DeliveryMetrics(new SimpleMeterRegistry()));
+
+    Notification notification = Notification.builder()
+        .title("Klausurergebnisse veröffentlicht")
+        .shortDescription("Die Ergebnisse der Klausur sind online.")
+        .message("Die Ergebnisse der Klausur Software Engineering sind jetzt online.\n\n"
+            + "Die Einsicht findet am Freitag im Raum A 1.02 statt.\n\n"
+            + "Bei Fragen wende dich bitte an das Prüfungsamt.")
+        .notificationType(NotificationType.Info)
+        .build();
+
+    request = EmailNotificationRequestDto.builder()
+        .to(List.of("student@sau-portal.de"))
+        .subject(notification.getTitle())
+        .template(EmailTemplate.GENERIC)
+        .variables(NotificationService.buildDefaultVariables(notification))
+        .ctaLink("https://sau-portal.de/notifications")
+        .build();
+    html = emailService.resolveHtml(request);
+  }
+
+  @Benchmark
+  public String resolveHtml() {
+    return emailService.resolveHtml(request);
+  }
+
+  @Benchmark
+  public String resolveText() {
+    return emailService.resolveText(request, html);
+  }
+}
@@ -0,0 +1,106 @@
+package com.ase.notificationservice.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for the sau realm of Keycloak. Serves the JWK set and the client
+ * credentials token endpoint for a key generated at startup, so the service
+ * accepts every token created by {@link #issue(String, List)}.
+ */
+final class FakeKeycloak implements AutoCloseable {
+  private static final String REALM_PATH = "/realms/sau";
+  private static final String TOKEN_PATH = REALM_PATH + "/protocol/openid-connect/token";
+  private static final String CERTS_PATH = REALM_PATH + "/protocol/openid-connect/certs";
+  private static final String SERVICE_ACCOUNT = "service-account-notification-service";
+  private static final int KEY_SIZE = 2048;
+  private static final int HTTP_OK = 200;
+  private static final Duration TOKEN_LIFETIME = Duration.ofHours(1);
+
+  private final RSAKey key;
+  private final JwtEncoder encoder;
+  private final HttpServer server;
+
+  FakeKeycloak() throws IOException {
+    try {
+      key = new RSAKeyGenerator(KEY_SIZE).keyID("loadtest").generate();
+    }
+    catch (JOSEException e) {
+      throw new IllegalStateException("Could not generate the signing key", e);
+    }
+    encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(CERTS_PATH, exchange ->
+        respond(exchange, new JWKSet(key.toPublicJWK()).toString()));
+    server.createContext(TOKEN_PATH, exchange ->
+        respond(exchange, "{\"access_token\":\"" + issue(SERVICE_ACCOUNT, List.of())
+            + "\",\"expires_in\":" + TOKEN_LIFETIME.toSeconds() + "}"));
+    server.start();
+  }
+
+  String issuerUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+  }
+
+  String tokenUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + TOKEN_PATH;
+  }
+
+  String jwkSetUri() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + CERTS_PATH;
+  }
+
+  /**
+   * Issues a signed access token.
+   *
+   * @param subject the user ID
+   * @param groups  the groups claim, mapped to roles by the service
+   * @return the encoded token
+   */
+  String issue(String subject, List<String> groups) {
+    Instant now = Instant.now();
+    JwtClaimsSet claims = JwtClaimsSet.builder()
+        .issuer(issuerUri())
+        .subject(subject)
+        .issuedAt(now)
+        .expiresAt(now.plus(TOKEN_LIFETIME))
+        .claim("groups", groups)
+        .build();
+    JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(key.getKeyID()).build();
+    return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+  }
+
+  private static void respond(HttpExchange exchange, String json) throws IOException {
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(HTTP_OK, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
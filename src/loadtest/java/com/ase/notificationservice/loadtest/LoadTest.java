@@ -0,0 +1,235 @@
+package com.ase.notificationservice.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import com.ase.notificationservice.Application;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Boots the service with the mock profile against in-process stand-ins for
+ * Keycloak ({@link FakeKeycloak}), the user service
+ * ({@code MockUserController}) and the SMTP server ({@link SmtpSink}). It
+ * then posts group notifications and reads inboxes at fixed rates while
+ * group members listen over STOMP, and prints throughput and latency
+ * percentiles per stage:
+ * <ul>
+ *   <li>{@code fanout}: POST /notifications until the response</li>
+ *   <li>{@code inbox}: GET /notifications until the response</li>
+ *   <li>{@code push}: POST until a subscriber receives the notification</li>
+ *   <li>{@code email}: POST until the SMTP server receives the email</li>
+ * </ul>
+ * Options are described in {@link LoadTestSettings}.
+ */
+public final class LoadTest {
+  private static final String GROUP = "loadtest";
+  private static final String TITLE_PREFIX = "load-";
+  private static final String SEND_ROLE = "Area-4.Team-15.Write.SendNotification";
+  private static final String READ_ROLE = "default-roles-sau";
+  private static final int INBOX_PAGE_SIZE = 50;
+  private static final int HTTP_SUCCESS_LIMIT = 300;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+
+  private final LoadTestSettings settings;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient http = HttpClient.newHttpClient();
+  private final AtomicLong sequence = new AtomicLong();
+  /** Start of every posted notification, by title. */
+  private final Map<String, Long> postedAt = new ConcurrentHashMap<>();
+  private final StageStats fanout = new StageStats("fanout");
+  private final StageStats inbox = new StageStats("inbox");
+  private final StageStats push = new StageStats("push");
+  private final StageStats email = new StageStats("email");
+
+  private LoadTest(LoadTestSettings settings) {
+    this.settings = settings;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new LoadTest(LoadTestSettings.parse(args)).run();
+  }
+
+  private void run() throws Exception {
+    try (FakeKeycloak keycloak = new FakeKeycloak();
+         SmtpSink smtp = new SmtpSink(this::onEmail)) {
+      int port = freePort();
+      String baseUrl = "http://127.0.0.1:" + port + "/api/v1";
+      String token = keycloak.issue("loadtest-sender", List.of(SEND_ROLE, READ_ROLE));
+
+      ConfigurableApplicationContext app = boot(port, keycloak, smtp);
+      try (NotificationSubscribers subscribers = new NotificationSubscribers(this::onPush)) {
+        List<String> members = IntStream.range(0, settings.subscribers())
+            .mapToObj(i -> GROUP + "-" + i)
+            .toList();
+        subscribers.connect(baseUrl + "/ws", user -> keycloak.issue(user, List.of(READ_ROLE)),
+            members, CONNECT_TIMEOUT);
+
+        ScheduledExecutorService drivers = Executors.newScheduledThreadPool(2);
+        long start = System.nanoTime();
+        schedule(drivers, settings.fanoutRate(), () -> postNotification(baseUrl, token));
+        schedule(drivers, settings.inboxRate(), () -> readInbox(baseUrl, token));
+        Thread.sleep(settings.duration().toMillis());
+        drivers.shutdownNow();
+
+        awaitDrain(subscribers);
+        print(start, subscribers.connected());
+      }
+      finally {
+        app.close();
+      }
+    }
+  }
+
+  private ConfigurableApplicationContext boot(int port, FakeKeycloak keycloak, SmtpSink smtp) {
+    // command line arguments take precedence over application.yaml
+    return new SpringApplicationBuilder(Application.class)
+        .profiles("mock")
+        .run(
+            "--server.port=" + port,
+            "--management.server.port=0",
+            "--spring.threads.virtual.enabled=" + settings.virtualThreads(),
+            "--spring.security.token.url=" + keycloak.tokenUri(),
+            "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + keycloak.issuerUri(),
+            "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + keycloak.jwkSetUri(),
+            "--spring.mail.host=127.0.0.1",
+            "--spring.mail.port=" + smtp.port(),
+            "--spring.mail.username=",
+            "--spring.mail.password=",
+            "--spring.mail.properties.mail.smtp.auth=false",
+            "--spring.mail.properties.mail.smtp.starttls.enable=false",
+            "--app.mail.rate-limit.messages-per-second=" + settings.smtpRate(),
+            "--app.mail.rate-limit.burst=" + settings.smtpRate(),
+            "--mock.user-service.default-group-size=" + settings.groupSize(),
+            "--mock.user-service.latency-ms=" + settings.userServiceLatencyMs(),
+            "--logging.level.root=WARN");
+  }
+
+  private static void schedule(ScheduledExecutorService executor, double rate, Runnable task) {
+    if (rate > 0) {
+      executor.scheduleAtFixedRate(
+          task, 0, (long) (NANOS_PER_SECOND / rate), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void postNotification(String baseUrl, String token) {
+    String title = TITLE_PREFIX + sequence.incrementAndGet();
+    String body;
+    try {
+      body = objectMapper.writeValueAsString(Map.of(
+          "groups", List.of(GROUP),
+          "title", title,
+          "message", "Load test notification " + title,
+          "notifyType", settings.notifyType(),
+          "notificationType", "Info"));
+    }
+    catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/notifications"))
+        .header("Authorization", "Bearer " + token)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+    long start = System.nanoTime();
+    postedAt.put(title, start);
+    send(request, fanout, start);
+  }
+
+  private void readInbox(String baseUrl, String token) {
+    String userId = GROUP + "-" + ThreadLocalRandom.current().nextInt(settings.groupSize());
+    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl
+            + "/notifications?userId=" + userId + "&size=" + INBOX_PAGE_SIZE))
+        .header("Authorization", "Bearer " + token)
+        .GET()
+        .build();
+    send(request, inbox, System.nanoTime());
+  }
+
+  private void send(HttpRequest request, StageStats stage, long start) {
+    http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .whenComplete((response, error) -> {
+          if (error == null && response.statusCode() < HTTP_SUCCESS_LIMIT) {
+            stage.record(start);
+          }
+          else {
+            stage.fail();
+          }
+        });
+  }
+
+  private void onPush(JsonNode event) {
+    if (!"Created".equals(event.path("type").asText())) {
+      return;
+    }
+    for (JsonNode notification : event.path("notifications")) {
+      recordDelivery(push, notification.path("title").asText());
+    }
+  }
+
+  private void onEmail(String subject) {
+    recordDelivery(email, subject);
+  }
+
+  private void recordDelivery(StageStats stage, String title) {
+    Long start = title == null ? null : postedAt.get(title);
+    if (start != null) {
+      stage.record(start);
+    }
+  }
+
+  /**
+   * Waits until every accepted notification has been pushed and mailed, or
+   * the drain timeout has passed.
+   */
+  private void awaitDrain(NotificationSubscribers subscribers) throws InterruptedException {
+    boolean pushes = !"Mail".equals(settings.notifyType());
+    boolean emails = !"UI".equals(settings.notifyType());
+    long deadline = System.nanoTime() + settings.drainTimeout().toNanos();
+    while (System.nanoTime() < deadline) {
+      long posted = fanout.count();
+      if ((!pushes || push.count() >= posted * subscribers.connected())
+          && (!emails || email.count() >= posted * settings.groupSize())) {
+        return;
+      }
+      Thread.sleep(POLL_INTERVAL.toMillis());
+    }
+  }
+
+  private void print(long start, int connected) {
+    System.out.printf("%s: %.1f posts/s to a group of %d, %.1f inbox reads/s, "
+            + "%d STOMP subscribers, user service latency %d ms, %d emails/s, "
+            + "virtual threads %s%n",
+        settings.notifyType(), settings.fanoutRate(), settings.groupSize(),
+        settings.inboxRate(), connected, settings.userServiceLatencyMs(),
+        settings.smtpRate(), settings.virtualThreads());
+    System.out.print(StageStats.header());
+    for (StageStats stage : List.of(fanout, inbox, push, email)) {
+      System.out.print(stage.report(start));
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.ase.notificationservice.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as {@code --name=value} arguments.
+ *
+ * @param duration              how long load is generated ({@code --duration-seconds})
+ * @param drainTimeout          how long to wait for outstanding pushes and emails
+ *                              afterwards ({@code --drain-seconds})
+ * @param fanoutRate            group notifications posted per second
+ * @param inboxRate             inbox pages read per second
+ * @param groupSize             members of the notified group
+ * @param subscribers           group members connected over STOMP
+ * @param userServiceLatencyMs  delay of every mocked user service response
+ * @param smtpRate              emails the service may send per second
+ * @param notifyType            {@code UI}, {@code Mail} or {@code All}
+ * @param virtualThreads        whether the service runs on virtual threads
+ */
+record LoadTestSettings(
+    Duration duration,
+    Duration drainTimeout,
+    double fanoutRate,
+    double inboxRate,
+    int groupSize,
+    int subscribers,
+    long userServiceLatencyMs,
+    int smtpRate,
+    String notifyType,
+    boolean virtualThreads
+) {
+
+  static LoadTestSettings parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+
+    int groupSize = Integer.parseInt(take(options, "group-size", "200"));
+    LoadTestSettings settings = new LoadTestSettings(
+        Duration.ofSeconds(Long.parseLong(take(options, "duration-seconds", "60"))),
+        Duration.ofSeconds(Long.parseLong(take(options, "drain-seconds", "120"))),
+        Double.parseDouble(take(options, "fanout-rate", "1")),
+        Double.parseDouble(take(options, "inbox-rate", "50")),
+        groupSize,
+        Math.min(groupSize, Integer.parseInt(take(options, "subscribers", "50"))),
+        Long.parseLong(take(options, "user-service-latency-ms", "20")),
+        Integer.parseInt(take(options, "smtp-rate", "50")),
+        take(options, "notify-type", "All"),
+        Boolean.parseBoolean(take(options, "virtual-threads", "false")));
+    if (!options.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options " + options.keySet());
+    }
+    return settings;
+  }
+
+  private static String take(Map<String, String> options, String name, String defaultValue) {
+    String value = options.remove(name);
+    return value == null ? defaultValue : value;
+  }
+}
@@ -0,0 +1,89 @@
+package com.ase.notificationservice.loadtest;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * STOMP clients subscribed to the notification queue of one user each, the
+ * way the frontend connects.
+ */
+final class NotificationSubscribers implements AutoCloseable {
+  private static final String QUEUE = "/user/queue/notifications";
+
+  private final WebSocketStompClient client;
+  private final List<StompSession> sessions = new CopyOnWriteArrayList<>();
+  private final Consumer<JsonNode> onEvent;
+
+  /**
+   * @param onEvent called with every event received by any subscriber
+   */
+  NotificationSubscribers(Consumer<JsonNode> onEvent) {
+    this.onEvent = onEvent;
+    client = new WebSocketStompClient(
+        new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    client.setMessageConverter(new MappingJackson2MessageConverter());
+  }
+
+  /**
+   * Connects and subscribes one session per user.
+   *
+   * @param url     the SockJS endpoint
+   * @param tokens  issues the access token of a user
+   * @param userIds the users to connect as
+   * @param timeout the time allowed per connection
+   */
+  void connect(String url, Function<String, String> tokens, List<String> userIds,
+               Duration timeout)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    for (String userId : userIds) {
+      StompHeaders connectHeaders = new StompHeaders();
+      connectHeaders.add("Authorization", "Bearer " + tokens.apply(userId));
+      StompSession session = client
+          .connectAsync(url, new WebSocketHttpHeaders(), connectHeaders,
+              new StompSessionHandlerAdapter() { })
+          .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      session.subscribe(QUEUE, new StompFrameHandler() {
+        @Override
+        @NonNull
+        public Type getPayloadType(@NonNull StompHeaders headers) {
+          return JsonNode.class;
+        }
+
+        @Override
+        public void handleFrame(@NonNull StompHeaders headers, Object payload) {
+          onEvent.accept((JsonNode) payload);
+        }
+      });
+      sessions.add(session);
+    }
+  }
+
+  int connected() {
+    return (int) sessions.stream().filter(StompSession::isConnected).count();
+  }
+
+  @Override
+  public void close() {
+    sessions.forEach(StompSession::disconnect);
+    client.stop();
+  }
+}
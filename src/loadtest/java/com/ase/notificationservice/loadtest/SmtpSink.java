@@ -0,0 +1,119 @@
+package com.ase.notificationservice.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * SMTP server that accepts and discards every message, reporting its subject
+ * as soon as the message is complete. Speaks just enough SMTP for JavaMail
+ * without authentication and STARTTLS.
+ */
+final class SmtpSink implements AutoCloseable {
+  private static final int BACKLOG = 100;
+  private static final int COMMAND_LENGTH = 4;
+  private static final String SUBJECT_HEADER = "Subject:";
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService connections = Executors.newCachedThreadPool();
+  private final Consumer<String> onMessage;
+
+  /**
+   * Starts the server on a free loopback port.
+   *
+   * @param onMessage called with the subject of every received message
+   */
+  SmtpSink(Consumer<String> onMessage) throws IOException {
+    this.onMessage = onMessage;
+    serverSocket = new ServerSocket(0, BACKLOG, InetAddress.getLoopbackAddress());
+    connections.execute(this::accept);
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.execute(() -> serve(socket));
+      }
+      catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (socket;
+         BufferedReader in = new BufferedReader(
+             new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+         Writer out = new OutputStreamWriter(
+             socket.getOutputStream(), StandardCharsets.ISO_8859_1)) {
+      reply(out, "220 loadtest SMTP sink");
+      String line;
+      while ((line = in.readLine()) != null) {
+        String command = line.substring(0, Math.min(COMMAND_LENGTH, line.length()))
+            .toUpperCase(Locale.ROOT);
+        switch (command) {
+          case "EHLO", "HELO" -> reply(out, "250 loadtest");
+          case "DATA" -> {
+            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+            onMessage.accept(readSubject(in));
+            reply(out, "250 OK");
+          }
+          case "QUIT" -> {
+            reply(out, "221 Bye");
+            return;
+          }
+          default -> reply(out, "250 OK");
+        }
+      }
+    }
+    catch (IOException e) {
+      // the client dropped the connection
+    }
+  }
+
+  /**
+   * Reads a message up to the terminating dot and returns its subject.
+   */
+  private static String readSubject(BufferedReader in) throws IOException {
+    String subject = null;
+    boolean inHeaders = true;
+    String line;
+    while ((line = in.readLine()) != null && !".".equals(line)) {
+      if (inHeaders && line.isEmpty()) {
+        inHeaders = false;
+      }
+      else if (inHeaders && subject == null
+          && line.regionMatches(true, 0, SUBJECT_HEADER, 0, SUBJECT_HEADER.length())) {
+        subject = line.substring(SUBJECT_HEADER.length()).trim();
+      }
+    }
+    return subject;
+  }
+
+  private static void reply(Writer out, String reply) throws IOException {
+    out.write(reply);
+    out.write("\r\n");
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    connections.shutdownNow();
+  }
+}
@@ -0,0 +1,72 @@
+package com.ase.notificationservice.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and failures recorded for one stage of the load test.
+ */
+final class StageStats {
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+  private static final double P50 = 0.5;
+  private static final double P90 = 0.9;
+  private static final double P99 = 0.99;
+  private static final String ROW = "%-8s %8s %8s %10s %9s %9s %9s %9s%n";
+
+  private final String name;
+  private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong lastRecorded = new AtomicLong();
+
+  StageStats(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Records a successful operation that started at {@code startNanos}.
+   */
+  void record(long startNanos) {
+    long now = System.nanoTime();
+    latencies.add(now - startNanos);
+    lastRecorded.accumulateAndGet(now, Math::max);
+  }
+
+  void fail() {
+    failures.incrementAndGet();
+  }
+
+  long count() {
+    return latencies.size();
+  }
+
+  static String header() {
+    return String.format(Locale.ROOT, ROW,
+        "stage", "count", "errors", "per sec", "p50 ms", "p90 ms", "p99 ms", "max ms");
+  }
+
+  /**
+   * Formats the stage as a table row. Throughput is measured from
+   * {@code startNanos} to the last recorded operation.
+   */
+  String report(long startNanos) {
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    double seconds = (lastRecorded.get() - startNanos) / NANOS_PER_SECOND;
+    return String.format(Locale.ROOT, ROW, name, sorted.length, failures.get(),
+        format(seconds > 0 ? sorted.length / seconds : 0),
+        millis(sorted, P50), millis(sorted, P90), millis(sorted, P99), millis(sorted, 1));
+  }
+
+  private static String millis(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return "-";
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return format(sorted[Math.max(0, index)] / NANOS_PER_MILLI);
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.1f", value);
+  }
+}
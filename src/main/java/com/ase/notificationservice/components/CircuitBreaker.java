@@ -0,0 +1,131 @@
+package com.ase.notificationservice.components;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Minimal circuit breaker for calls to a remote service. After
+ * {@code failureThreshold} consecutive failures the circuit opens and calls
+ * fail immediately with {@link CallNotPermittedException}. Once
+ * {@code openDuration} has passed a single trial call is let through; its
+ * outcome closes the circuit again or keeps it open.
+ */
+public class CircuitBreaker {
+
+  /**
+   * Thrown instead of calling the remote service while the circuit is open.
+   */
+  public static class CallNotPermittedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CallNotPermittedException(String name) {
+      super("Circuit '" + name + "' is open, not calling the service");
+    }
+  }
+
+  private final String name;
+  private final int failureThreshold;
+  private final long openNanos;
+  private final Predicate<Throwable> recordFailure;
+  private final LongSupplier nanoTime;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicBoolean trialInFlight = new AtomicBoolean();
+  private volatile long openedAt;
+  private volatile boolean open;
+
+  /**
+   * @param name             name used in error messages
+   * @param failureThreshold consecutive failures that open the circuit
+   * @param openDuration     how long the circuit stays open before a trial
+   * @param recordFailure    which errors count as failures of the service;
+   *                         other errors count as successful calls
+   */
+  public CircuitBreaker(String name, int failureThreshold, Duration openDuration,
+                        Predicate<Throwable> recordFailure) {
+    this(name, failureThreshold, openDuration, recordFailure, System::nanoTime);
+  }
+
+  CircuitBreaker(String name, int failureThreshold, Duration openDuration,
+                 Predicate<Throwable> recordFailure, LongSupplier nanoTime) {
+    this.name = name;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openNanos = openDuration.toNanos();
+    this.recordFailure = recordFailure;
+    this.nanoTime = nanoTime;
+  }
+
+  public boolean isOpen() {
+    return open;
+  }
+
+  /**
+   * Guards a call; the call is only subscribed to if the circuit permits it.
+   *
+   * @param call the remote call
+   * @param <T>  the result type
+   * @return the guarded call
+   */
+  public <T> Mono<T> protect(Mono<T> call) {
+    return Mono.defer(() -> {
+      if (!tryAcquire()) {
+        return Mono.error(new CallNotPermittedException(name));
+      }
+      return call
+          .doOnSuccess(value -> onSuccess())
+          .doOnError(this::onError)
+          .doOnCancel(() -> trialInFlight.set(false));
+    });
+  }
+
+  /**
+   * Guards a streaming call; see {@link #protect(Mono)}.
+   *
+   * @param call the remote call
+   * @param <T>  the element type
+   * @return the guarded call
+   */
+  public <T> Flux<T> protect(Flux<T> call) {
+    return Flux.defer(() -> {
+      if (!tryAcquire()) {
+        return Flux.error(new CallNotPermittedException(name));
+      }
+      return call
+          .doOnComplete(this::onSuccess)
+          .doOnError(this::onError)
+          .doOnCancel(() -> trialInFlight.set(false));
+    });
+  }
+
+  private boolean tryAcquire() {
+    if (!open) {
+      return true;
+    }
+    if (nanoTime.getAsLong() - openedAt < openNanos) {
+      return false;
+    }
+    return trialInFlight.compareAndSet(false, true);
+  }
+
+  private void onSuccess() {
+    consecutiveFailures.set(0);
+    open = false;
+    trialInFlight.set(false);
+  }
+
+  private void onError(Throwable error) {
+    if (!recordFailure.test(error)) {
+      onSuccess();
+      return;
+    }
+    if (open || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+      openedAt = nanoTime.getAsLong();
+      open = true;
+    }
+    trialInFlight.set(false);
+  }
+}
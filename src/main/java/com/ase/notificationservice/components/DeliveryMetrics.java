@@ -0,0 +1,59 @@
+package com.ase.notificationservice.components;
+
+import org.springframework.stereotype.Component;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.NotificationType;
+import com.ase.notificationservice.enums.NotifyType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Creates the meters of the delivery pipeline. Stages that handle a single
+ * kind of notification are tagged with its {@code notify.type} and
+ * {@code notification.type}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryMetrics {
+  public static final String OUTCOME = "outcome";
+  public static final String SUCCESS = "success";
+  public static final String ERROR = "error";
+
+  private static final String UNKNOWN = "unknown";
+
+  private final MeterRegistry meterRegistry;
+
+  public Timer.Sample start() {
+    return Timer.start(meterRegistry);
+  }
+
+  public Timer timer(String name, Tags tags) {
+    return Timer.builder(name).tags(tags).register(meterRegistry);
+  }
+
+  public Counter counter(String name, Tags tags) {
+    return Counter.builder(name).tags(tags).register(meterRegistry);
+  }
+
+  public DistributionSummary summary(String name, Tags tags) {
+    return DistributionSummary.builder(name).tags(tags).register(meterRegistry);
+  }
+
+  public static Tags tags(NotifyType notifyType, NotificationType notificationType) {
+    return Tags.of(
+        "notify.type", notifyType == null ? UNKNOWN : notifyType.name(),
+        "notification.type", notificationType == null ? UNKNOWN : notificationType.name());
+  }
+
+  public static Tags tags(Notification notification) {
+    return tags(notification.getNotifyType(), notification.getNotificationType());
+  }
+
+  public static Tags outcome(Throwable error) {
+    return Tags.of(OUTCOME, error == null ? SUCCESS : ERROR);
+  }
+}
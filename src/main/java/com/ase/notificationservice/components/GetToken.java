@@ -6,8 +6,16 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -15,55 +23,177 @@ import com.ase.notificationservice.entities.TokenResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
+/**
+ * Provides the service account token used towards the user service. The
+ * token is cached until shortly before it expires and refreshed in the
+ * background once it enters the refresh window; concurrent callers share a
+ * single in-flight request to Keycloak, which fails after a timeout so a
+ * hanging token endpoint cannot block later callers.
+ */
 @Component
 public class GetToken {
   private static final Logger LOGGER = LoggerFactory.getLogger(GetToken.class);
   private static final int MAX_LOG_BODY_LENGTH = 1000;
   private static final int MIN_LOG_BODY_LENGTH = 0;
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+  /** A token request that is not answered within this time fails. */
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration DEFAULT_LIFETIME = Duration.ofSeconds(60);
+  /** Tokens are treated as expired this long before their real expiry. */
+  private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(10);
+  /** A background refresh starts once less than this lifetime is left. */
+  private static final Duration REFRESH_AHEAD = Duration.ofSeconds(60);
+  /** Short-lived tokens use at most this fraction of their lifetime as expiry margin. */
+  private static final int EXPIRY_MARGIN_DIVISOR = 10;
+  /** Short-lived tokens are refreshed after at least half of their lifetime. */
+  private static final int REFRESH_AHEAD_DIVISOR = 2;
 
-  private String token;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .connectTimeout(CONNECT_TIMEOUT)
+      .build();
+  private final AtomicReference<CompletableFuture<CachedToken>> inFlight =
+      new AtomicReference<>();
+  private final MeterRegistry meterRegistry;
+  private final Duration requestTimeout;
+  private volatile CachedToken cached;
+
+  @Value("${spring.security.token.url}") String tokenUrl;
   @Value("${spring.security.token.client-id}") String clientId;
   @Value("${spring.security.token.client-secret}") String clientSecret;
 
-  public String makeHttpCall() throws IOException, InterruptedException {
-    HttpClient client = HttpClient.newHttpClient();
+  private record CachedToken(String value, Instant refreshAt, Instant expiresAt) {
+  }
+
+  @Autowired
+  public GetToken(MeterRegistry meterRegistry) {
+    this(meterRegistry, REQUEST_TIMEOUT);
+  }
+
+  GetToken(MeterRegistry meterRegistry, Duration requestTimeout) {
+    this.meterRegistry = meterRegistry;
+    this.requestTimeout = requestTimeout;
+  }
+
+  public String getToken()
+      throws JsonMappingException, JsonProcessingException, IOException, InterruptedException {
+    try {
+      return getTokenAsync().get();
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException("Token refresh failed: " + cause.getMessage(), cause);
+    }
+  }
 
+  /**
+   * Returns the cached token right away while it is valid, otherwise a
+   * future completing with a freshly requested one. Never blocks.
+   *
+   * @return the access token
+   */
+  public CompletableFuture<String> getTokenAsync() {
+    CachedToken current = cached;
+    Instant now = Instant.now();
+    if (current != null && now.isBefore(current.expiresAt())) {
+      if (!now.isBefore(current.refreshAt())) {
+        refreshAsync();
+      }
+      return CompletableFuture.completedFuture(current.value());
+    }
+    return refreshAsync().thenApply(CachedToken::value);
+  }
+
+  private CompletableFuture<CachedToken> refreshAsync() {
+    while (true) {
+      CompletableFuture<CachedToken> running = inFlight.get();
+      if (running != null) {
+        return running;
+      }
+      CompletableFuture<CachedToken> created = new CompletableFuture<>();
+      if (inFlight.compareAndSet(null, created)) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        // the timeout guarantees the in-flight request is released, even if Keycloak hangs
+        makeHttpCall()
+            .thenApply(this::parseJson)
+            .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((token, error) -> {
+              sample.stop(Timer.builder("user.service.token")
+                  .description("Token requests to Keycloak")
+                  .tags(DeliveryMetrics.outcome(error))
+                  .register(meterRegistry));
+              if (error == null) {
+                cached = token;
+              }
+              inFlight.set(null);
+              if (error == null) {
+                created.complete(token);
+              }
+              else {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                LOGGER.warn("Keycloak token refresh failed: {}", cause.toString());
+                created.completeExceptionally(cause);
+              }
+            });
+        return created;
+      }
+    }
+  }
+
+  private CompletableFuture<String> makeHttpCall() {
     String url = "client_id=%s&grant_type=client_credentials&client_secret=%s";
 
     HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://keycloak.sau-portal.de/realms/sau/protocol/openid-connect/token"))
+        .uri(URI.create(tokenUrl))
         .POST(BodyPublishers.ofString(String.format(url, clientId, clientSecret)))
         .setHeader("Content-Type", "application/x-www-form-urlencoded")
+        .timeout(requestTimeout)
         .build();
 
-    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(response -> {
+          int status = response.statusCode();
+          if (status == HttpStatus.OK.value()) {
+            LOGGER.info("Keycloak token endpoint responded with status=200 (OK)");
+            return response.body();
+          }
+          String body = response.body();
+          String safeBody = body == null ? null : (body.length()
+              > MAX_LOG_BODY_LENGTH
+              ? body.substring(MIN_LOG_BODY_LENGTH, MAX_LOG_BODY_LENGTH) + "..." : body);
+          LOGGER.warn("Keycloak token endpoint error: status={}, body={}", status, safeBody);
+          throw new CompletionException(
+              new IOException("Keycloak token endpoint returned status " + status));
+        });
+  }
 
-    int status = response.statusCode();
-    if (status == HttpStatus.OK.value()) {
-      LOGGER.info("Keycloak token endpoint responded with status=200 (OK)");
+  private CachedToken parseJson(String body) {
+    TokenResponse jsontoken;
+    try {
+      jsontoken = MAPPER.readValue(body, TokenResponse.class);
     }
-    else {
-      String body = response.body();
-      String safeBody = body == null ? null : (body.length()
-          > MAX_LOG_BODY_LENGTH
-          ? body.substring(MIN_LOG_BODY_LENGTH, MAX_LOG_BODY_LENGTH) + "..." : body);
-      LOGGER.warn("Keycloak token endpoint error: status={}, body={}", status, safeBody);
+    catch (JsonProcessingException e) {
+      throw new CompletionException(new IOException("Unreadable token response", e));
     }
-
-    return response.body();
-  }
-
-  public String parseJson(String body) throws JsonMappingException, JsonProcessingException{
-    ObjectMapper mapper = new ObjectMapper();
-    TokenResponse jsontoken = mapper.readValue(body, TokenResponse.class);
-    token = jsontoken.access_token;
-    return token;
+    Duration lifetime = jsontoken.expires_in > 0
+        ? Duration.ofSeconds(jsontoken.expires_in) : DEFAULT_LIFETIME;
+    Instant now = Instant.now();
+    Instant expiresAt = now.plus(lifetime)
+        .minus(min(EXPIRY_MARGIN, lifetime.dividedBy(EXPIRY_MARGIN_DIVISOR)));
+    Instant refreshAt = now.plus(lifetime)
+        .minus(min(REFRESH_AHEAD, lifetime.dividedBy(REFRESH_AHEAD_DIVISOR)));
+    return new CachedToken(jsontoken.access_token, refreshAt, expiresAt);
   }
 
-  public String getToken()
-      throws JsonMappingException, JsonProcessingException, IOException, InterruptedException {
-    return parseJson(makeHttpCall());
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
   }
 
 }
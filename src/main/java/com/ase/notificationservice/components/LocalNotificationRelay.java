@@ -0,0 +1,22 @@
+package com.ase.notificationservice.components;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Relay for single-node setups and tests: delivers to this node's broker only.
+ */
+@Component
+@ConditionalOnProperty(name = "app.relay.mode", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalNotificationRelay implements NotificationRelay {
+
+  private final SimpMessagingTemplate messagingTemplate;
+
+  @Override
+  public void publishToUser(String user, String destination, Object payload) {
+    messagingTemplate.convertAndSendToUser(user, destination, payload);
+  }
+}
@@ -0,0 +1,32 @@
+package com.ase.notificationservice.components;
+
+import java.util.Map;
+
+/**
+ * Delivers STOMP messages to subscribers on every replica, not only to those
+ * connected to the node that produced the message.
+ */
+public interface NotificationRelay {
+
+  /**
+   * Sends a payload to a user destination on all nodes; every node resolves
+   * the user's local sessions itself.
+   *
+   * @param user        the user (principal name)
+   * @param destination the user destination, e.g. {@code /queue/notifications}
+   * @param payload     the message payload, serialized as JSON
+   */
+  void publishToUser(String user, String destination, Object payload);
+
+  /**
+   * Sends one payload per user to the same user destination on all nodes.
+   * Relays that go through a shared channel override this to send the whole
+   * fan-out at once.
+   *
+   * @param destination the user destination, e.g. {@code /queue/notifications}
+   * @param payloads    the payload for each user (principal name)
+   */
+  default void publishToUsers(String destination, Map<String, ?> payloads) {
+    payloads.forEach((user, payload) -> publishToUser(user, destination, payload));
+  }
+}
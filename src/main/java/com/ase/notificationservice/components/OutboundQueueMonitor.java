@@ -0,0 +1,85 @@
+package com.ase.notificationservice.components;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks frames queued on the client outbound channel per WebSocket session.
+ * Exposes the total and the largest per-session backlog as gauges, and the
+ * backlog a frame found on enqueue as a distribution.
+ */
+@Component
+public class OutboundQueueMonitor implements ExecutorChannelInterceptor {
+
+  private final ConcurrentMap<String, AtomicInteger> queued = new ConcurrentHashMap<>();
+  private final AtomicInteger total = new AtomicInteger();
+  private final DistributionSummary backlogOnEnqueue;
+
+  public OutboundQueueMonitor(MeterRegistry meterRegistry) {
+    Gauge.builder("stomp.outbound.queued", total, AtomicInteger::get)
+        .description("Frames waiting on the outbound channel across all sessions")
+        .register(meterRegistry);
+    Gauge.builder("stomp.outbound.queued.max", queued, OutboundQueueMonitor::maxBacklog)
+        .description("Frames waiting on the outbound channel for the slowest session")
+        .register(meterRegistry);
+    Gauge.builder("stomp.outbound.sessions", queued, ConcurrentMap::size)
+        .description("Sessions with frames waiting on the outbound channel")
+        .register(meterRegistry);
+    backlogOnEnqueue = DistributionSummary.builder("stomp.outbound.queued.per.session")
+        .description("Frames already queued for a session when a new one is added")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (sessionId != null) {
+      int backlog = queued.computeIfAbsent(sessionId, id -> new AtomicInteger()).getAndIncrement();
+      total.incrementAndGet();
+      backlogOnEnqueue.record(backlog);
+    }
+    return message;
+  }
+
+  /**
+   * Frames that were rejected, e.g. by the executor or a later interceptor,
+   * never reach a handler, so they are taken off the backlog here.
+   */
+  @Override
+  public void afterSendCompletion(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                  boolean sent, Exception ex) {
+    if (!sent || ex != null) {
+      dequeue(message);
+    }
+  }
+
+  @Override
+  public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                  @NonNull MessageHandler handler, Exception ex) {
+    dequeue(message);
+  }
+
+  private void dequeue(Message<?> message) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (sessionId == null) {
+      return;
+    }
+    total.decrementAndGet();
+    queued.computeIfPresent(sessionId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+  }
+
+  private static double maxBacklog(ConcurrentMap<String, AtomicInteger> queued) {
+    return queued.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+  }
+}
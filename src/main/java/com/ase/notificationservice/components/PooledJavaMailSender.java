@@ -0,0 +1,219 @@
+package com.ase.notificationservice.components;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import com.ase.notificationservice.config.SmtpPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps connected, authenticated SMTP
+ * transports in a pool instead of opening, STARTTLS-negotiating and closing
+ * a connection for every {@code send} call. Connections are returned to
+ * the front of the pool after every message, so a batch passed to
+ * {@code send(MimeMessage...)} keeps reusing the same one.
+ * Connections are closed once idle for too long or after the configured
+ * number of messages; a connection that breaks during a send is discarded.
+ * Every message waits for the {@link SmtpRateLimiter}, in its priority lane
+ * if it carries an {@code X-Priority: 1} header, before it takes a
+ * connection.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+  public static final String PRIORITY_HEADER = "X-Priority";
+  public static final String HIGHEST_PRIORITY = "1 (Highest)";
+
+  private final SmtpPoolConfig poolConfig;
+  private final SmtpRateLimiter rateLimiter;
+  private final LongSupplier currentTimeMillis;
+  private final Semaphore permits;
+  private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+  private static final class PooledTransport {
+    private final Transport transport;
+    private int sent;
+    private long lastUsedAt;
+
+    private PooledTransport(Transport transport, long lastUsedAt) {
+      this.transport = transport;
+      this.lastUsedAt = lastUsedAt;
+    }
+  }
+
+  public PooledJavaMailSender(SmtpPoolConfig poolConfig, SmtpRateLimiter rateLimiter) {
+    this(poolConfig, rateLimiter, System::currentTimeMillis);
+  }
+
+  PooledJavaMailSender(SmtpPoolConfig poolConfig, SmtpRateLimiter rateLimiter,
+                       LongSupplier currentTimeMillis) {
+    this.poolConfig = poolConfig;
+    this.rateLimiter = rateLimiter;
+    this.currentTimeMillis = currentTimeMillis;
+    this.permits = new Semaphore(Math.max(1, poolConfig.getSize()), true);
+  }
+
+  @Override
+  protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) {
+    Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+    for (int i = 0; i < mimeMessages.length; i++) {
+      // Quota before connection: a sender waiting for its token must not
+      // hold a pool permit, or normal batches keep the priority lane out.
+      try {
+        rateLimiter.acquire(isPriority(mimeMessages[i]));
+        if (!permits.tryAcquire(poolConfig.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+          MessagingException ex = new MessagingException("No SMTP connection available within "
+              + poolConfig.getBorrowTimeoutMs() + " ms");
+          failRemaining(failedMessages, mimeMessages, originalMessages, i, ex);
+          throw new MailSendException(ex.getMessage(), ex, failedMessages);
+        }
+      }
+      catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        failRemaining(failedMessages, mimeMessages, originalMessages, i, ex);
+        throw new MailSendException("Interrupted while waiting to send", ex, failedMessages);
+      }
+
+      PooledTransport pooled;
+      try {
+        pooled = borrow();
+      }
+      catch (AuthenticationFailedException ex) {
+        permits.release();
+        throw new MailAuthenticationException(ex);
+      }
+      catch (MessagingException ex) {
+        permits.release();
+        failRemaining(failedMessages, mimeMessages, originalMessages, i, ex);
+        throw new MailSendException("Mail server connection failed", ex, failedMessages);
+      }
+
+      try {
+        sendMessage(pooled, mimeMessages[i]);
+      }
+      catch (MessagingException ex) {
+        failedMessages.put(original(mimeMessages, originalMessages, i), ex);
+      }
+      finally {
+        giveBack(pooled);
+        permits.release();
+      }
+    }
+
+    if (!failedMessages.isEmpty()) {
+      throw new MailSendException(failedMessages);
+    }
+  }
+
+  /**
+   * Closes connections that have not been used within the idle timeout.
+   */
+  @Scheduled(fixedDelayString = "${app.mail.pool.idle-timeout-ms:60000}")
+  public void evictIdle() {
+    long now = currentTimeMillis.getAsLong();
+    for (PooledTransport pooled : new ArrayList<>(idle)) {
+      if (now - pooled.lastUsedAt >= poolConfig.getIdleTimeoutMs() && idle.remove(pooled)) {
+        close(pooled);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    PooledTransport pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      close(pooled);
+    }
+  }
+
+  private PooledTransport borrow() throws MessagingException {
+    long now = currentTimeMillis.getAsLong();
+    PooledTransport pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      if (now - pooled.lastUsedAt < poolConfig.getIdleTimeoutMs()
+          && pooled.transport.isConnected()) {
+        return pooled;
+      }
+      close(pooled);
+    }
+    return new PooledTransport(connectTransport(), now);
+  }
+
+  /**
+   * Returns a connection to the front of the pool, so the next message of a
+   * batch usually gets it back, unless it broke or has reached its limit.
+   */
+  private void giveBack(PooledTransport pooled) {
+    if (!pooled.transport.isConnected()
+        || pooled.sent >= poolConfig.getMaxMessagesPerConnection()) {
+      close(pooled);
+      return;
+    }
+    pooled.lastUsedAt = currentTimeMillis.getAsLong();
+    idle.offerFirst(pooled);
+  }
+
+  private void sendMessage(PooledTransport pooled, MimeMessage mimeMessage)
+      throws MessagingException {
+    if (mimeMessage.getSentDate() == null) {
+      mimeMessage.setSentDate(new Date());
+    }
+    String messageId = mimeMessage.getMessageID();
+    mimeMessage.saveChanges();
+    if (messageId != null) {
+      // saveChanges() generates a new id, keep the one set by the caller
+      mimeMessage.setHeader("Message-ID", messageId);
+    }
+    Address[] addresses = mimeMessage.getAllRecipients();
+    pooled.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+    pooled.sent++;
+  }
+
+  private static boolean isPriority(MimeMessage mimeMessage) {
+    try {
+      String[] values = mimeMessage.getHeader(PRIORITY_HEADER);
+      return values != null && values.length > 0 && values[0].trim().startsWith("1");
+    }
+    catch (MessagingException e) {
+      return false;
+    }
+  }
+
+  private void close(PooledTransport pooled) {
+    try {
+      pooled.transport.close();
+    }
+    catch (MessagingException e) {
+      log.debug("Failed to close SMTP connection: {}", e.getMessage());
+    }
+  }
+
+  private static void failRemaining(Map<Object, Exception> failedMessages,
+      MimeMessage[] mimeMessages, @Nullable Object[] originalMessages, int from, Exception ex) {
+    for (int j = from; j < mimeMessages.length; j++) {
+      failedMessages.put(original(mimeMessages, originalMessages, j), ex);
+    }
+  }
+
+  private static Object original(
+      MimeMessage[] mimeMessages, @Nullable Object[] originalMessages, int index) {
+    return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+  }
+}
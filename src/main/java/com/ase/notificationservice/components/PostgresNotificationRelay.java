@@ -0,0 +1,241 @@
+package com.ase.notificationservice.components;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import com.ase.notificationservice.config.RelayConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relay fanning out pushes to all replicas through PostgreSQL
+ * LISTEN/NOTIFY. Messages are delivered to local subscribers right away and
+ * sent with {@code pg_notify}; inside a transaction PostgreSQL only emits the
+ * notification on commit. A fan-out to many users is packed into as few
+ * payloads as the NOTIFY limit allows, all sent with a single statement.
+ * A dedicated listener connection on every node
+ * receives the notifications of the other nodes and hands them to the local
+ * broker. Relay lag per node is recorded as {@code notification.relay.lag}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.relay.mode", havingValue = "postgres")
+public class PostgresNotificationRelay implements NotificationRelay {
+
+  /** PostgreSQL rejects NOTIFY payloads of 8000 bytes or more. */
+  private static final int MAX_PAYLOAD_BYTES = 7900;
+
+  private static final String NOTIFY_SQL =
+      "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSourceProperties dataSourceProperties;
+  private final ObjectMapper objectMapper;
+  private final RelayConfig relayConfig;
+  private final String nodeId;
+  private final Timer lagTimer;
+  private final Counter sentCounter;
+  private final Counter receivedCounter;
+  private final Counter oversizeCounter;
+  private volatile boolean running;
+  private Thread listener;
+
+  record Envelope(
+      String origin, long sentAtMillis, String destination, List<Message> messages) {
+  }
+
+  record Message(String user, JsonNode payload) {
+  }
+
+  public PostgresNotificationRelay(
+      SimpMessagingTemplate messagingTemplate,
+      JdbcTemplate jdbcTemplate,
+      DataSourceProperties dataSourceProperties,
+      ObjectMapper objectMapper,
+      RelayConfig relayConfig,
+      MeterRegistry meterRegistry) {
+    this.messagingTemplate = messagingTemplate;
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSourceProperties = dataSourceProperties;
+    this.objectMapper = objectMapper;
+    this.relayConfig = relayConfig;
+    String hostname = System.getenv("HOSTNAME");
+    this.nodeId = hostname != null ? hostname : UUID.randomUUID().toString();
+    this.lagTimer = Timer.builder("notification.relay.lag")
+        .description("Time between publishing a push and delivering it on another node")
+        .tag("node", nodeId)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.sentCounter = Counter.builder("notification.relay.sent")
+        .tag("node", nodeId).register(meterRegistry);
+    this.receivedCounter = Counter.builder("notification.relay.received")
+        .tag("node", nodeId).register(meterRegistry);
+    this.oversizeCounter = Counter.builder("notification.relay.oversize")
+        .description("Pushes delivered locally only because they exceed the NOTIFY limit")
+        .tag("node", nodeId).register(meterRegistry);
+  }
+
+  @Override
+  public void publishToUser(String user, String destination, Object payload) {
+    publishToUsers(destination, Map.of(user, payload));
+  }
+
+  @Override
+  public void publishToUsers(String destination, Map<String, ?> payloads) {
+    payloads.forEach((user, payload) ->
+        messagingTemplate.convertAndSendToUser(user, destination, payload));
+
+    List<String> batches;
+    try {
+      batches = pack(destination, payloads);
+    }
+    catch (JsonProcessingException e) {
+      log.error("Could not serialize relay message for {}: {}", destination, e.getMessage());
+      return;
+    }
+    if (batches.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL)) {
+        statement.setString(1, relayConfig.getChannel());
+        statement.setArray(2, connection.createArrayOf("text", batches.toArray()));
+        statement.execute();
+      }
+      return null;
+    });
+    sentCounter.increment(batches.size());
+  }
+
+  /**
+   * Serializes the messages into envelopes that each stay below the NOTIFY
+   * limit. A single message that does not fit on its own is skipped.
+   */
+  List<String> pack(String destination, Map<String, ?> payloads)
+      throws JsonProcessingException {
+    long sentAt = System.currentTimeMillis();
+    int envelopeBytes = jsonBytes(new Envelope(nodeId, sentAt, destination, List.of()));
+    List<String> batches = new ArrayList<>();
+    List<Message> batch = new ArrayList<>();
+    int batchBytes = envelopeBytes;
+    for (Map.Entry<String, ?> entry : payloads.entrySet()) {
+      Message message = new Message(entry.getKey(), objectMapper.valueToTree(entry.getValue()));
+      // One extra byte for the comma separating it from the previous message.
+      int messageBytes = jsonBytes(message) + 1;
+      if (envelopeBytes + messageBytes > MAX_PAYLOAD_BYTES) {
+        log.warn("Relay message for {} too large, delivered on this node only", destination);
+        oversizeCounter.increment();
+        continue;
+      }
+      if (batchBytes + messageBytes > MAX_PAYLOAD_BYTES) {
+        batches.add(objectMapper.writeValueAsString(
+            new Envelope(nodeId, sentAt, destination, batch)));
+        batch = new ArrayList<>();
+        batchBytes = envelopeBytes;
+      }
+      batch.add(message);
+      batchBytes += messageBytes;
+    }
+    if (!batch.isEmpty()) {
+      batches.add(objectMapper.writeValueAsString(
+          new Envelope(nodeId, sentAt, destination, batch)));
+    }
+    return batches;
+  }
+
+  private int jsonBytes(Object value) throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(value).length;
+  }
+
+  @jakarta.annotation.PostConstruct
+  void start() {
+    running = true;
+    listener = new Thread(this::listen, "notification-relay-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @jakarta.annotation.PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    listener.interrupt();
+    listener.join(relayConfig.getPollTimeoutMs() * 2L);
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(
+          dataSourceProperties.determineUrl(),
+          dataSourceProperties.determineUsername(),
+          dataSourceProperties.determinePassword())) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + relayConfig.getChannel());
+        }
+        log.info("Relay listener on node {} subscribed to {}", nodeId, relayConfig.getChannel());
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications =
+              pgConnection.getNotifications(relayConfig.getPollTimeoutMs());
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              deliver(notification.getParameter());
+            }
+          }
+        }
+      }
+      catch (SQLException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("Relay listener lost its connection, reconnecting: {}", e.getMessage());
+        try {
+          Thread.sleep(relayConfig.getReconnectDelayMs());
+        }
+        catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  void deliver(String json) {
+    try {
+      Envelope envelope = objectMapper.readValue(json, Envelope.class);
+      if (nodeId.equals(envelope.origin())) {
+        return;
+      }
+      for (Message message : envelope.messages()) {
+        messagingTemplate.convertAndSendToUser(
+            message.user(), envelope.destination(), message.payload());
+        receivedCounter.increment();
+      }
+      lagTimer.record(Duration.ofMillis(
+          Math.max(0, System.currentTimeMillis() - envelope.sentAtMillis())));
+    }
+    catch (JsonProcessingException | RuntimeException e) {
+      log.warn("Dropping unreadable relay message: {}", e.getMessage());
+    }
+  }
+}
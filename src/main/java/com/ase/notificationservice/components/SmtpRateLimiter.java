@@ -0,0 +1,131 @@
+package com.ase.notificationservice.components;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.ase.notificationservice.config.MailRateLimitConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Token bucket limiting how fast messages are handed to the SMTP server, so
+ * the provider's quota is respected up front instead of through rejections.
+ * Senders wait in one of two lanes; as long as a priority sender is waiting,
+ * normal senders do not get a token. Exposes the number of waiting senders
+ * and their wait time per lane. The bucket lives in this JVM, so every
+ * replica gets its share of the quota as configured in
+ * {@link MailRateLimitConfig}.
+ */
+@Component
+public class SmtpRateLimiter {
+
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final boolean unlimited;
+  private final double tokensPerNano;
+  private final double capacity;
+  private final LongSupplier nanoTime;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition tokenReleased = lock.newCondition();
+  private final AtomicInteger priorityWaiting = new AtomicInteger();
+  private final AtomicInteger normalWaiting = new AtomicInteger();
+  private final Timer priorityWait;
+  private final Timer normalWait;
+  private double tokens;
+  private long refilledAt;
+
+  @Autowired
+  public SmtpRateLimiter(MailRateLimitConfig config, MeterRegistry meterRegistry) {
+    this(config, meterRegistry, System::nanoTime);
+  }
+
+  SmtpRateLimiter(MailRateLimitConfig config, MeterRegistry meterRegistry,
+                  LongSupplier nanoTime) {
+    int replicas = Math.max(1, config.getReplicas());
+    this.unlimited = config.getMessagesPerSecond() <= 0;
+    this.tokensPerNano = config.getMessagesPerSecond() / replicas / NANOS_PER_SECOND;
+    this.capacity = Math.max(1, config.getBurst() / replicas);
+    this.tokens = capacity;
+    this.nanoTime = nanoTime;
+    this.refilledAt = nanoTime.getAsLong();
+
+    Gauge.builder("mail.dispatch.queued", priorityWaiting, AtomicInteger::get)
+        .description("Messages waiting for SMTP send quota")
+        .tag("lane", "priority")
+        .register(meterRegistry);
+    Gauge.builder("mail.dispatch.queued", normalWaiting, AtomicInteger::get)
+        .description("Messages waiting for SMTP send quota")
+        .tag("lane", "normal")
+        .register(meterRegistry);
+    priorityWait = Timer.builder("mail.dispatch.wait")
+        .description("Time a message waited for SMTP send quota")
+        .tag("lane", "priority")
+        .register(meterRegistry);
+    normalWait = Timer.builder("mail.dispatch.wait")
+        .description("Time a message waited for SMTP send quota")
+        .tag("lane", "normal")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Blocks until the next message may be sent. The wait can be long while
+   * the quota is used up, so callers must not hold a database transaction.
+   *
+   * @param priority whether the message jumps ahead of normal messages
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire(boolean priority) throws InterruptedException {
+    if (unlimited) {
+      return;
+    }
+    long start = nanoTime.getAsLong();
+    AtomicInteger waiting = priority ? priorityWaiting : normalWaiting;
+    waiting.incrementAndGet();
+    try {
+      lock.lockInterruptibly();
+      try {
+        while (true) {
+          refill();
+          boolean turn = priority || priorityWaiting.get() == 0;
+          if (turn && tokens >= 1) {
+            tokens -= 1;
+            break;
+          }
+          // behind a priority sender: wait for the next token or to be woken
+          double missing = turn ? 1 - tokens : 1;
+          tokenReleased.awaitNanos(Math.max(1, (long) Math.ceil(missing / tokensPerNano)));
+        }
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+    finally {
+      if (waiting.decrementAndGet() == 0 && priority) {
+        wakeNormalLane();
+      }
+    }
+    (priority ? priorityWait : normalWait).record(nanoTime.getAsLong() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private void refill() {
+    long now = nanoTime.getAsLong();
+    tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+    refilledAt = now;
+  }
+
+  private void wakeNormalLane() {
+    lock.lock();
+    try {
+      tokenReleased.signalAll();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.ase.notificationservice.components;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exposes the number of connected STOMP sessions as a gauge. Sessions are
+ * kept as a set because a disconnect event may be published more than once
+ * per session.
+ */
+@Component
+public class StompSessionMonitor {
+
+  private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+  public StompSessionMonitor(MeterRegistry meterRegistry) {
+    Gauge.builder("stomp.sessions", sessions, Set::size)
+        .description("Connected STOMP sessions")
+        .register(meterRegistry);
+  }
+
+  @EventListener
+  public void onConnected(SessionConnectedEvent event) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    if (sessionId != null) {
+      sessions.add(sessionId);
+    }
+  }
+
+  @EventListener
+  public void onDisconnect(SessionDisconnectEvent event) {
+    sessions.remove(event.getSessionId());
+  }
+}
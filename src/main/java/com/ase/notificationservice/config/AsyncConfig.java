@@ -0,0 +1,62 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used for background notification delivery. They start a virtual
+ * thread per task when {@code spring.threads.virtual.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(DeliveryConfig.class)
+public class AsyncConfig {
+
+  /**
+   * Bounded executor running asynchronous notification jobs. Once the queue
+   * is full, further submissions are rejected instead of piling up. With
+   * virtual threads, as many jobs as pool and queue hold run at once.
+   *
+   * @param deliveryConfig delivery settings
+   * @param environment    used to detect virtual thread mode
+   * @return the job executor
+   */
+  @Bean
+  TaskExecutor notificationJobExecutor(DeliveryConfig deliveryConfig, Environment environment) {
+    if (VirtualThreads.isEnabled(environment)) {
+      return VirtualThreads.boundedExecutor("notification-job-",
+          deliveryConfig.getJobMaxPoolSize() + deliveryConfig.getJobQueueCapacity());
+    }
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(deliveryConfig.getJobCorePoolSize());
+    executor.setMaxPoolSize(deliveryConfig.getJobMaxPoolSize());
+    executor.setQueueCapacity(deliveryConfig.getJobQueueCapacity());
+    executor.setThreadNamePrefix("notification-job-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /**
+   * Executor running the email outbox dispatcher threads.
+   *
+   * @param deliveryConfig delivery settings
+   * @param environment    used to detect virtual thread mode
+   * @return the dispatcher executor
+   */
+  @Bean
+  TaskExecutor outboxDispatchExecutor(DeliveryConfig deliveryConfig, Environment environment) {
+    if (VirtualThreads.isEnabled(environment)) {
+      return VirtualThreads.boundedExecutor(
+          "email-outbox-", deliveryConfig.getOutboxDispatcherThreads());
+    }
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(deliveryConfig.getOutboxDispatcherThreads());
+    executor.setMaxPoolSize(deliveryConfig.getOutboxDispatcherThreads());
+    executor.setThreadNamePrefix("email-outbox-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+}
@@ -0,0 +1,109 @@
+package com.ase.notificationservice.config;
+
+import java.util.Set;
+import org.thymeleaf.cache.AbstractCacheManager;
+import org.thymeleaf.cache.ExpressionCacheKey;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.ICacheEntryValidityChecker;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.engine.TemplateModel;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Thymeleaf cache manager backed by bounded Caffeine caches, whose hits,
+ * misses and evictions are exposed as {@code cache.*} metrics.
+ */
+class CaffeineTemplateCacheManager extends AbstractCacheManager {
+
+  private final int templateCacheMaxSize;
+  private final int expressionCacheMaxSize;
+  private final MeterRegistry meterRegistry;
+
+  CaffeineTemplateCacheManager(
+      int templateCacheMaxSize, int expressionCacheMaxSize, MeterRegistry meterRegistry) {
+    this.templateCacheMaxSize = templateCacheMaxSize;
+    this.expressionCacheMaxSize = expressionCacheMaxSize;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected ICache<TemplateCacheKey, TemplateModel> initializeTemplateCache() {
+    return new CaffeineCache<>(build("emailTemplates", templateCacheMaxSize),
+        StandardCacheManager.DEFAULT_TEMPLATE_CACHE_VALIDITY_CHECKER);
+  }
+
+  @Override
+  protected ICache<ExpressionCacheKey, Object> initializeExpressionCache() {
+    return new CaffeineCache<>(build("emailExpressions", expressionCacheMaxSize), null);
+  }
+
+  private <K, V> Cache<K, Entry<V>> build(String name, int maxSize) {
+    Cache<K, Entry<V>> cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    return cache;
+  }
+
+  private record Entry<V>(V value, long createdAt) {
+  }
+
+  /**
+   * Entries that fail the validity checker are dropped on access, which is
+   * how Thymeleaf expires templates whose source changed.
+   */
+  private static final class CaffeineCache<K, V> implements ICache<K, V> {
+    private final Cache<K, Entry<V>> cache;
+    private final ICacheEntryValidityChecker<? super K, ? super V> validityChecker;
+
+    private CaffeineCache(
+        Cache<K, Entry<V>> cache, ICacheEntryValidityChecker<? super K, ? super V> validityChecker) {
+      this.cache = cache;
+      this.validityChecker = validityChecker;
+    }
+
+    @Override
+    public void put(K key, V value) {
+      cache.put(key, new Entry<>(value, System.currentTimeMillis()));
+    }
+
+    @Override
+    public V get(K key) {
+      return get(key, validityChecker);
+    }
+
+    @Override
+    public V get(K key, ICacheEntryValidityChecker<? super K, ? super V> checker) {
+      Entry<V> entry = cache.getIfPresent(key);
+      if (entry == null) {
+        return null;
+      }
+      if (checker != null
+          && !checker.checkIsValueStillValid(key, entry.value(), entry.createdAt())) {
+        cache.invalidate(key);
+        return null;
+      }
+      return entry.value();
+    }
+
+    @Override
+    public void clear() {
+      cache.invalidateAll();
+    }
+
+    @Override
+    public void clearKey(K key) {
+      cache.invalidate(key);
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return Set.copyOf(cache.asMap().keySet());
+    }
+  }
+}
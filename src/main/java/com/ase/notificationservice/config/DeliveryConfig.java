@@ -0,0 +1,73 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration class for background notification delivery.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.delivery")
+@Data
+public class DeliveryConfig {
+
+  /**
+   * Number of threads kept alive for asynchronous notification jobs.
+   */
+  private int jobCorePoolSize = 2;
+
+  /**
+   * Upper bound of threads used for asynchronous notification jobs.
+   */
+  private int jobMaxPoolSize = 4;
+
+  /**
+   * Number of jobs that may wait for a free thread before new ones are
+   * rejected.
+   */
+  private int jobQueueCapacity = 100;
+
+  /**
+   * Number of threads draining the email outbox in parallel on each replica.
+   */
+  private int outboxDispatcherThreads = 2;
+
+  /**
+   * Maximum number of outbox entries locked and sent per transaction.
+   */
+  private int outboxBatchSize = 20;
+
+  /**
+   * Delay between two outbox polls in milliseconds.
+   */
+  private long outboxPollIntervalMs = 1000;
+
+  /**
+   * Number of send attempts before an outbox entry is marked as failed.
+   */
+  private int outboxMaxAttempts = 5;
+
+  /**
+   * Delay before the first retry of a failed outbox entry in milliseconds.
+   * Doubles with every further attempt.
+   */
+  private long outboxRetryDelayMs = 30000;
+
+  /**
+   * How long a dispatcher may take to send a claimed outbox batch, in
+   * milliseconds. Entries still claimed afterwards are sent again, so this
+   * has to cover a full batch at the SMTP quota.
+   */
+  private long outboxLeaseMs = 300000;
+
+  /**
+   * Number of buffered notifications after which a user's digest is sent
+   * before its window ends. 0 disables the threshold.
+   */
+  private int digestMaxSize = 50;
+
+  /**
+   * Longest digest window a user may choose, in minutes.
+   */
+  private int digestMaxWindowMinutes = 1440;
+}
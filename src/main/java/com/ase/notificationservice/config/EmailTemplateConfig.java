@@ -0,0 +1,44 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Loading and caching of the email templates.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.mail.templates")
+@Data
+public class EmailTemplateConfig {
+
+  /**
+   * Optional directory with templates that take precedence over the ones
+   * bundled in the jar. Changes are picked up without a restart.
+   */
+  private String directory;
+
+  /**
+   * Time in milliseconds between checks of a cached template for changes
+   * in {@link #directory}.
+   */
+  private long checkIntervalMs = 10000;
+
+  /**
+   * Maximum number of parsed templates kept in the cache.
+   */
+  private int cacheMaxSize = 100;
+
+  /**
+   * Maximum number of parsed expressions kept in the cache.
+   */
+  private int expressionCacheMaxSize = 1000;
+
+  /**
+   * Whether the templates of every EmailTemplate are parsed at startup.
+   */
+  private boolean precompile = true;
+
+  public boolean hasDirectory() {
+    return directory != null && !directory.isBlank();
+  }
+}
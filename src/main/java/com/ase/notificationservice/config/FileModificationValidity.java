@@ -0,0 +1,56 @@
+package com.ase.notificationservice.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Objects;
+import org.thymeleaf.cache.ICacheEntryValidity;
+
+/**
+ * Keeps a cached template valid until the file it may be loaded from is
+ * modified, created or deleted. The file is checked at most once per
+ * interval, so cache hits in between cost no file system access.
+ */
+final class FileModificationValidity implements ICacheEntryValidity {
+
+  private final Path file;
+  private final FileTime resolvedModified;
+  private final long intervalNanos;
+  private volatile long nextCheck;
+
+  FileModificationValidity(Path file, Duration interval) {
+    this.file = file;
+    this.resolvedModified = lastModified(file);
+    this.intervalNanos = interval.toNanos();
+    this.nextCheck = System.nanoTime() + intervalNanos;
+  }
+
+  @Override
+  public boolean isCacheable() {
+    return true;
+  }
+
+  @Override
+  public boolean isCacheStillValid() {
+    long now = System.nanoTime();
+    if (now - nextCheck < 0) {
+      return true;
+    }
+    nextCheck = now + intervalNanos;
+    return Objects.equals(resolvedModified, lastModified(file));
+  }
+
+  /**
+   * @return the modification time, null if the file does not exist
+   */
+  private static FileTime lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+}
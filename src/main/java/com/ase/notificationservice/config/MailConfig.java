@@ -0,0 +1,47 @@
+package com.ase.notificationservice.config;
+
+import java.util.Properties;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import com.ase.notificationservice.components.PooledJavaMailSender;
+import com.ase.notificationservice.components.SmtpRateLimiter;
+
+/**
+ * Replaces the auto-configured mail sender with one that reuses pooled SMTP
+ * connections. The {@code spring.mail.*} properties are applied unchanged.
+ */
+@Configuration
+@EnableConfigurationProperties(
+    {MailProperties.class, SmtpPoolConfig.class, MailRateLimitConfig.class})
+public class MailConfig {
+
+  /**
+   * Mail sender backed by a pool of authenticated SMTP connections.
+   *
+   * @param mailProperties the {@code spring.mail} settings
+   * @param poolConfig     pool settings
+   * @param rateLimiter    the send quota
+   * @return the mail sender
+   */
+  @Bean
+  PooledJavaMailSender mailSender(MailProperties mailProperties, SmtpPoolConfig poolConfig,
+                                  SmtpRateLimiter rateLimiter) {
+    PooledJavaMailSender sender = new PooledJavaMailSender(poolConfig, rateLimiter);
+    sender.setHost(mailProperties.getHost());
+    if (mailProperties.getPort() != null) {
+      sender.setPort(mailProperties.getPort());
+    }
+    sender.setUsername(mailProperties.getUsername());
+    sender.setPassword(mailProperties.getPassword());
+    sender.setProtocol(mailProperties.getProtocol());
+    if (mailProperties.getDefaultEncoding() != null) {
+      sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+    }
+    Properties javaMailProperties = new Properties();
+    javaMailProperties.putAll(mailProperties.getProperties());
+    sender.setJavaMailProperties(javaMailProperties);
+    return sender;
+  }
+}
@@ -0,0 +1,32 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration class for the SMTP send quota.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.mail.rate-limit")
+@Data
+public class MailRateLimitConfig {
+
+  /**
+   * Sustained number of messages sent per second across all connections of
+   * all replicas. Zero or less disables rate limiting.
+   */
+  private double messagesPerSecond = 5;
+
+  /**
+   * Number of messages that may be sent at once after an idle period, across
+   * all replicas.
+   */
+  private int burst = 10;
+
+  /**
+   * Number of replicas sending mail. Every replica limits itself to its share
+   * of {@code messagesPerSecond} and {@code burst}, so this has to match the
+   * deployment's replica count.
+   */
+  private int replicas = 1;
+}
@@ -0,0 +1,35 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration class for relaying WebSocket pushes between replicas.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.relay")
+@Data
+public class RelayConfig {
+
+  /**
+   * Relay implementation: {@code local} delivers to this node's subscribers
+   * only, {@code postgres} additionally fans out through PostgreSQL
+   * LISTEN/NOTIFY to every replica.
+   */
+  private String mode = "local";
+
+  /**
+   * PostgreSQL notification channel used by the postgres relay.
+   */
+  private String channel = "notification_relay";
+
+  /**
+   * How long the listener waits for notifications per poll in milliseconds.
+   */
+  private int pollTimeoutMs = 500;
+
+  /**
+   * Delay before the listener reconnects after losing its connection.
+   */
+  private long reconnectDelayMs = 5000;
+}
@@ -5,7 +5,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import lombok.Data;
 
 @Data
+@SuppressWarnings("checkstyle:MagicNumber")
 @ConfigurationProperties(prefix = "app.repository")
 public class RepositoryConfig {
   private boolean initializeWithDummyData;
+  private int defaultPageSize = 50;
+  private int maxPageSize = 200;
 }
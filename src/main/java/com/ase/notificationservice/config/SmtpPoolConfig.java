@@ -0,0 +1,34 @@
+package com.ase.notificationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration class for the pool of SMTP connections used to send mail.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.mail.pool")
+@Data
+public class SmtpPoolConfig {
+
+  /**
+   * Maximum number of SMTP connections open at the same time.
+   */
+  private int size = 4;
+
+  /**
+   * Time in milliseconds after which an unused connection is closed.
+   */
+  private long idleTimeoutMs = 60000;
+
+  /**
+   * Number of messages after which a connection is closed and replaced,
+   * keeping below the provider's per-connection limit.
+   */
+  private int maxMessagesPerConnection = 100;
+
+  /**
+   * Time in milliseconds a send waits for a free connection before failing.
+   */
+  private long borrowTimeoutMs = 30000;
+}
@@ -1,27 +1,105 @@
 package com.ase.notificationservice.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.ICacheEntryValidity;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Template engine for emails. Templates are looked up in
+ * {@code app.mail.templates.directory} first, if configured, and then in
+ * the jar. With a directory, cached templates are re-parsed once their
+ * file there is changed, added or removed.
+ */
 @Configuration
+@EnableConfigurationProperties(EmailTemplateConfig.class)
 public class ThymeleafEmailConfig {
+  private static final String SUFFIX = ".html";
+
   @Bean
-  SpringResourceTemplateResolver emailTemplateResolver() {
-    SpringResourceTemplateResolver springResourceTemplateResolver
-        = new SpringResourceTemplateResolver();
+  SpringResourceTemplateResolver emailTemplateResolver(EmailTemplateConfig config) {
+    SpringResourceTemplateResolver springResourceTemplateResolver = config.hasDirectory()
+        ? new OverridableResourceTemplateResolver(config)
+        : new SpringResourceTemplateResolver();
     springResourceTemplateResolver.setPrefix("classpath:/templates/email/");
-    springResourceTemplateResolver.setSuffix(".html");
+    springResourceTemplateResolver.setSuffix(SUFFIX);
     springResourceTemplateResolver.setTemplateMode("HTML");
     springResourceTemplateResolver.setCharacterEncoding("UTF-8");
     springResourceTemplateResolver.setCacheable(true);
+    springResourceTemplateResolver.setOrder(2);
     return springResourceTemplateResolver;
   }
+
   @Bean
-  SpringTemplateEngine emailTemplateEngine(SpringResourceTemplateResolver emailTemplateResolver) {
+  SpringTemplateEngine emailTemplateEngine(SpringResourceTemplateResolver emailTemplateResolver,
+                                           EmailTemplateConfig config,
+                                           MeterRegistry meterRegistry) {
     SpringTemplateEngine engine = new SpringTemplateEngine();
-    engine.setTemplateResolver(emailTemplateResolver);
+    if (config.hasDirectory()) {
+      FileTemplateResolver directoryResolver = new DirectoryTemplateResolver(config);
+      directoryResolver.setPrefix(Path.of(config.getDirectory()).toString() + "/");
+      directoryResolver.setSuffix(SUFFIX);
+      directoryResolver.setTemplateMode("HTML");
+      directoryResolver.setCharacterEncoding("UTF-8");
+      directoryResolver.setCacheable(true);
+      directoryResolver.setCheckExistence(true);
+      directoryResolver.setOrder(1);
+      engine.addTemplateResolver(directoryResolver);
+    }
+    engine.addTemplateResolver(emailTemplateResolver);
+    engine.setCacheManager(new CaffeineTemplateCacheManager(
+        config.getCacheMaxSize(), config.getExpressionCacheMaxSize(), meterRegistry));
     return engine;
   }
+
+  private static ICacheEntryValidity watch(EmailTemplateConfig config, String template) {
+    return new FileModificationValidity(Path.of(config.getDirectory(), template + SUFFIX),
+        Duration.ofMillis(config.getCheckIntervalMs()));
+  }
+
+  /**
+   * Resolves templates from the configured directory.
+   */
+  private static final class DirectoryTemplateResolver extends FileTemplateResolver {
+    private final EmailTemplateConfig config;
+
+    private DirectoryTemplateResolver(EmailTemplateConfig config) {
+      this.config = config;
+    }
+
+    @Override
+    protected ICacheEntryValidity computeValidity(IEngineConfiguration configuration,
+                                                  String ownerTemplate, String template,
+                                                  Map<String, Object> attributes) {
+      return watch(config, template);
+    }
+  }
+
+  /**
+   * Resolves the bundled templates until a template of the same name is
+   * added to the configured directory.
+   */
+  private static final class OverridableResourceTemplateResolver
+      extends SpringResourceTemplateResolver {
+    private final EmailTemplateConfig config;
+
+    private OverridableResourceTemplateResolver(EmailTemplateConfig config) {
+      this.config = config;
+    }
+
+    @Override
+    protected ICacheEntryValidity computeValidity(IEngineConfiguration configuration,
+                                                  String ownerTemplate, String template,
+                                                  Map<String, Object> attributes) {
+      return watch(config, template);
+    }
+  }
 }
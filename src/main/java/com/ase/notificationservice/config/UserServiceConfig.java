@@ -6,6 +6,7 @@ import lombok.Data;
 /**
  * Configuration class for user service endpoints and settings.
  */
+@SuppressWarnings("checkstyle:MagicNumber")
 @ConfigurationProperties(prefix = "user-service")
 @Data
 public class UserServiceConfig {
@@ -23,4 +24,76 @@ public class UserServiceConfig {
    * How Long till a Timeout is thrown
    */
   private int timeoutMs;
+
+  /**
+   * Time in milliseconds allowed for establishing a connection.
+   */
+  private int connectTimeoutMs = 2000;
+
+  /**
+   * Maximum number of pooled connections to the user service.
+   */
+  private int maxConnections = 50;
+
+  /**
+   * Maximum number of requests waiting for a pooled connection; further
+   * requests fail immediately.
+   */
+  private int pendingAcquireMaxCount = 500;
+
+  /**
+   * Time in milliseconds after which an idle pooled connection is closed.
+   */
+  private long maxIdleTimeMs = 30000;
+
+  /**
+   * Consecutive failed requests after which calls to the user service are
+   * stopped for {@code circuit-open-ms}.
+   */
+  private int circuitFailureThreshold = 5;
+
+  /**
+   * Time in milliseconds calls are stopped after the circuit opened, before
+   * a single trial request is let through.
+   */
+  private long circuitOpenMs = 30000;
+
+  /**
+   * Path of the bulk user lookup endpoint (POST with a list of user IDs).
+   * Leave empty if the user service offers none; lookups then fall back to
+   * parallel single-user requests.
+   */
+  private String bulkLookupPath;
+
+  /**
+   * Maximum number of user IDs sent in one bulk lookup request.
+   */
+  private int bulkLookupSize = 100;
+
+  /**
+   * Maximum number of lookup requests in flight at the same time.
+   */
+  private int lookupConcurrency = 8;
+
+  /**
+   * Maximum number of group membership requests in flight at the same time.
+   */
+  private int groupLookupConcurrency = 4;
+
+  /**
+   * Maximum number of entries kept in each of the user and group caches.
+   */
+  private long cacheMaxSize = 10000;
+
+  /**
+   * How long a cached email address or group membership may be served at
+   * all. Entries older than this are evicted and loaded synchronously.
+   */
+  private long cacheTtlMs = 3600000;
+
+  /**
+   * Age after which a cached entry is reloaded in the background while the
+   * stale value keeps being served.
+   */
+  private long cacheRefreshMs = 300000;
 }
@@ -0,0 +1,77 @@
+package com.ase.notificationservice.config;
+
+import java.util.concurrent.Semaphore;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Applies {@code spring.threads.virtual.enabled} to the executors this
+ * service creates itself. Spring Boot only switches Tomcat and its own
+ * executors. Ours then start a virtual thread per task instead of queueing
+ * behind a fixed number of platform threads; a semaphore keeps the bound on
+ * accepted work, so overload is still rejected instead of piling up.
+ */
+final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  static boolean isEnabled(Environment environment) {
+    return Threading.VIRTUAL.isActive(environment);
+  }
+
+  /**
+   * Creates an executor running every task on its own virtual thread.
+   *
+   * @param threadNamePrefix prefix of the thread names
+   * @param limit            tasks that may run at the same time; further
+   *                         tasks are rejected with {@link TaskRejectedException}
+   * @return the executor
+   */
+  static BoundedVirtualThreadExecutor boundedExecutor(String threadNamePrefix, int limit) {
+    return new BoundedVirtualThreadExecutor(threadNamePrefix, limit);
+  }
+
+  /**
+   * Virtual thread per task executor with a limit on the tasks in flight.
+   */
+  static final class BoundedVirtualThreadExecutor implements TaskExecutor {
+
+    private final String name;
+    private final int limit;
+    private final Semaphore permits;
+    private final VirtualThreadTaskExecutor executor;
+
+    private BoundedVirtualThreadExecutor(String threadNamePrefix, int limit) {
+      this.name = threadNamePrefix;
+      this.limit = Math.max(1, limit);
+      this.permits = new Semaphore(this.limit);
+      this.executor = new VirtualThreadTaskExecutor(threadNamePrefix);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      if (!permits.tryAcquire()) {
+        throw new TaskRejectedException(
+            "Executor " + name + " is running its limit of " + limit + " tasks");
+      }
+      try {
+        executor.execute(() -> {
+          try {
+            task.run();
+          }
+          finally {
+            permits.release();
+          }
+        });
+      }
+      catch (RuntimeException | Error e) {
+        permits.release();
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.ase.notificationservice.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Configuration class for the STOMP endpoint, its channels and transport
+ * limits.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "app.websocket")
+@Data
+public class WebSocketBrokerConfig {
+
+  /**
+   * Origins allowed to open WebSocket/SockJS connections.
+   */
+  private List<String> allowedOriginPatterns = List.of("*");
+
+  /**
+   * Thread pool handling messages sent by clients.
+   */
+  private int inboundCorePoolSize = 4;
+  private int inboundMaxPoolSize = 8;
+  private int inboundQueueCapacity = 1000;
+
+  /**
+   * Thread pool writing messages to clients.
+   */
+  private int outboundCorePoolSize = 4;
+  private int outboundMaxPoolSize = 8;
+  private int outboundQueueCapacity = 10000;
+
+  /**
+   * Bytes that may be buffered for a single session while a previous send
+   * is still in progress. A session exceeding it is closed as a slow consumer.
+   */
+  private int sendBufferSizeLimit = 512 * 1024;
+
+  /**
+   * Time a single send may take before the session is closed as a slow
+   * consumer.
+   */
+  private int sendTimeLimitMs = 15000;
+
+  /**
+   * Maximum size of an incoming STOMP message.
+   */
+  private int messageSizeLimit = 64 * 1024;
+
+  /**
+   * Interval of server-to-client and expected client-to-server heartbeats.
+   * 0 disables heartbeats.
+   */
+  private long heartbeatMs = 10000;
+}
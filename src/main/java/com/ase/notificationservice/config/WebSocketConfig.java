@@ -1,22 +1,49 @@
 package com.ase.notificationservice.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
 import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import com.ase.notificationservice.components.OutboundQueueMonitor;
+import com.ase.notificationservice.security.StompAuthChannelInterceptor;
+import lombok.RequiredArgsConstructor;
 
 /**
  * WebSocket configuration for real-time notifications.
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@EnableConfigurationProperties(WebSocketBrokerConfig.class)
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+  private final WebSocketBrokerConfig brokerConfig;
+  private final OutboundQueueMonitor outboundQueueMonitor;
+  private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+  private final Environment environment;
+  private TaskScheduler messageBrokerTaskScheduler;
+
+  @Autowired
+  public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler taskScheduler) {
+    this.messageBrokerTaskScheduler = taskScheduler;
+  }
+
   @Override
   public void configureMessageBroker(@NonNull MessageBrokerRegistry config) {
-    config.enableSimpleBroker("/topic", "/queue");
+    long heartbeat = brokerConfig.getHeartbeatMs();
+    config.enableSimpleBroker("/topic", "/queue")
+        .setHeartbeatValue(new long[] {heartbeat, heartbeat})
+        .setTaskScheduler(messageBrokerTaskScheduler);
 
     config.setApplicationDestinationPrefixes("/app");
 
@@ -27,7 +54,46 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
   public void registerStompEndpoints(@NonNull StompEndpointRegistry registry) {
     // Register STOMP endpoint for WebSocket connections
     registry.addEndpoint("/ws")
-        .setAllowedOriginPatterns("*")
+        .setAllowedOriginPatterns(brokerConfig.getAllowedOriginPatterns().toArray(String[]::new))
         .withSockJS();
   }
+
+  @Override
+  public void configureClientInboundChannel(@NonNull ChannelRegistration registration) {
+    configureExecutor(registration, "clientInboundChannel-",
+        brokerConfig.getInboundCorePoolSize(), brokerConfig.getInboundMaxPoolSize(),
+        brokerConfig.getInboundQueueCapacity());
+    registration.interceptors(stompAuthChannelInterceptor);
+  }
+
+  @Override
+  public void configureClientOutboundChannel(@NonNull ChannelRegistration registration) {
+    configureExecutor(registration, "clientOutboundChannel-",
+        brokerConfig.getOutboundCorePoolSize(), brokerConfig.getOutboundMaxPoolSize(),
+        brokerConfig.getOutboundQueueCapacity());
+    registration.interceptors(outboundQueueMonitor);
+  }
+
+  private void configureExecutor(ChannelRegistration registration, String threadNamePrefix,
+                                 int corePoolSize, int maxPoolSize, int queueCapacity) {
+    if (VirtualThreads.isEnabled(environment)) {
+      registration.executor(
+          VirtualThreads.boundedExecutor(threadNamePrefix, maxPoolSize + queueCapacity));
+      return;
+    }
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix(threadNamePrefix);
+    registration.taskExecutor(executor)
+        .corePoolSize(corePoolSize)
+        .maxPoolSize(maxPoolSize)
+        .queueCapacity(queueCapacity);
+  }
+
+  @Override
+  public void configureWebSocketTransport(@NonNull WebSocketTransportRegistration registration) {
+    // Sessions exceeding either limit are closed instead of buffering without bound
+    registration.setSendBufferSizeLimit(brokerConfig.getSendBufferSizeLimit())
+        .setSendTimeLimit(brokerConfig.getSendTimeLimitMs())
+        .setMessageSizeLimit(brokerConfig.getMessageSizeLimit());
+  }
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.ase.notificationservice.dtos.EmailNotificationRequestDto;
+import com.ase.notificationservice.dtos.EmailSendResultDto;
 import com.ase.notificationservice.services.EmailService;
 import lombok.RequiredArgsConstructor;
 
@@ -22,12 +23,27 @@ import lombok.RequiredArgsConstructor;
 public class EmailController {
   private final EmailService emailService;
 
+  /**
+   * Sends an email to every recipient and reports the outcome per recipient.
+   * Responds with 200 if all recipients were served, 207 if some failed or
+   * were rejected and 502 if none were.
+   *
+   * @param req the email request
+   * @return the per-recipient result
+   */
   @PreAuthorize("hasAuthority('ROLE_AREA-4.TEAM-15.WRITE.SENDNOTIFICATION')")
   @PostMapping(produces = "application/json")
   public ResponseEntity<?> sendEmail(@Valid @RequestBody EmailNotificationRequestDto req) {
     try {
-      emailService.sendEmail(req);
-      return ResponseEntity.noContent().build();
+      EmailSendResultDto result = emailService.sendEmail(req);
+      HttpStatus status = HttpStatus.OK;
+      if (result.sent() == 0) {
+        status = HttpStatus.BAD_GATEWAY;
+      }
+      else if (result.sent() < result.recipients().size()) {
+        status = HttpStatus.MULTI_STATUS;
+      }
+      return ResponseEntity.status(status).body(result);
     }
     catch (IllegalArgumentException e) {
       return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -1,28 +1,41 @@
 package com.ase.notificationservice.controllers;
 
+import java.security.Principal;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import com.ase.notificationservice.components.CircuitBreaker;
+import com.ase.notificationservice.dtos.DigestPreferenceDto;
+import com.ase.notificationservice.dtos.MarkAsReadRequestDto;
 import com.ase.notificationservice.dtos.NotificationCreationDto;
+import com.ase.notificationservice.dtos.NotificationPageDto;
 import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.entities.NotificationJob;
 import com.ase.notificationservice.enums.EmailTemplate;
+import com.ase.notificationservice.services.DigestPreferenceService;
+import com.ase.notificationservice.services.GroupsDisabledException;
+import com.ase.notificationservice.services.NotificationJobService;
 import com.ase.notificationservice.services.NotificationService;
+import com.ase.notificationservice.services.UserServiceException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * REST controller for managing notification operations.
@@ -33,65 +46,99 @@ import lombok.extern.slf4j.Slf4j;
 @RequestMapping("/notifications")
 public class NotificationController {
 
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
   private final NotificationService notificationService;
+  private final NotificationJobService notificationJobService;
+  private final DigestPreferenceService digestPreferenceService;
+
+  /**
+   * Creates notifications for the given users and groups. Group members are
+   * resolved without holding the request thread; the notifications are
+   * persisted on a worker thread once the recipients are known. With
+   * {@code async=true} a background job is started instead.
+   */
   @PreAuthorize("hasAuthority('ROLE_AREA-4.TEAM-15.WRITE.SENDNOTIFICATION')")
   @PostMapping
-  public ResponseEntity<?> postNotification(
-      @RequestBody NotificationCreationDto notificationCreationDto) {
-
-    List<Notification> created = new ArrayList<>();
-
-    List<String> allUsers = new ArrayList<>();
-    if (notificationCreationDto.getUsers() != null) {
-      allUsers.addAll(Arrays.asList(notificationCreationDto.getUsers()));
-    }
+  public CompletableFuture<ResponseEntity<?>> postNotification(
+      @RequestBody NotificationCreationDto notificationCreationDto,
+      @RequestParam(defaultValue = "false") boolean async) {
 
-    try {
-      if (notificationCreationDto.getGroups() != null) {
-        for (String groupName : notificationCreationDto.getGroups()) {
-          List<String> usersInGroup = notificationService.getUsersInGroup(groupName);
-          allUsers.addAll(usersInGroup);
-        }
+    if (async) {
+      try {
+        NotificationJob job = notificationJobService.submit(notificationCreationDto);
+        return CompletableFuture.completedFuture(
+            ResponseEntity.status(HttpStatus.ACCEPTED).body(job));
+      }
+      catch (TaskRejectedException e) {
+        return CompletableFuture.completedFuture(
+            ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Too many pending notification jobs, retry later"));
       }
-    }
-    catch (IllegalStateException e) {
-      return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(e.getMessage());
-    }
-    catch (RuntimeException e) {
-      log.error("Failed to fetch users from groups: {}", e.getMessage(), e);
-      return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-          .body("Failed to fetch users from group service: " + e.getMessage());
     }
 
-    Instant receivedTimestamp = Instant.now();
     Optional<EmailTemplate> emailTemplate = Optional.
         ofNullable(notificationCreationDto.getEmailTemplate());
     Optional<Map<String, Object>> variables = Optional.
         ofNullable(notificationCreationDto.getVariables());
-    for (String user : allUsers.stream().distinct().toList()) {
-      Notification notification = Notification.builder()
-          .userId(user)
-          .message(notificationCreationDto.getMessage())
-          .title(notificationCreationDto.getTitle())
-          .priority(notificationCreationDto.isPriority())
-          .shortDescription(notificationCreationDto.getShortDescription())
-          .notifyType(notificationCreationDto.getNotifyType())
-          .receivedAt(receivedTimestamp)
-          .notificationType(notificationCreationDto.getNotificationType())
-          .build();
-
-      created.add(notificationService.createNotification(notification, emailTemplate, variables));
-    }
 
-    return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    return Mono.fromFuture(
+            () -> notificationService.resolveRecipientsAsync(notificationCreationDto))
+        .publishOn(Schedulers.boundedElastic())
+        .<ResponseEntity<?>>map(recipients -> {
+          List<Notification> pending =
+              notificationService.buildNotifications(notificationCreationDto, recipients);
+          List<Notification> created =
+              notificationService.createNotifications(pending, emailTemplate, variables);
+          return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        })
+        .onErrorResume(GroupsDisabledException.class, e -> Mono.just(
+            ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(e.getMessage())))
+        .onErrorResume(UserServiceException.class, e -> {
+          log.error("Failed to fetch users from groups: {}", e.getMessage(), e);
+          HttpStatus status = e.getCause() instanceof CircuitBreaker.CallNotPermittedException
+              ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_GATEWAY;
+          return Mono.just(ResponseEntity.status(status)
+              .body("Failed to fetch users from group service: " + e.getMessage()));
+        })
+        .toFuture();
+  }
+
+  @PreAuthorize("hasAuthority('ROLE_AREA-4.TEAM-15.WRITE.SENDNOTIFICATION')")
+  @GetMapping("/jobs/{jobId}")
+  public ResponseEntity<NotificationJob> getJob(@PathVariable String jobId) {
+    return notificationJobService.findJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found")
+        );
   }
 
+  /**
+   * Returns one page of the user's inbox, newest first. The cursor for the
+   * next page is sent in the {@code X-Next-Cursor} header, which is absent
+   * on the last page.
+   */
   @GetMapping
   public ResponseEntity<List<Notification>> getNotifications(
-      @RequestParam String userId) {
-    List<Notification> notifications
-        = notificationService.getNotificationsForUser(userId);
-    return ResponseEntity.ok(notifications);
+      @RequestParam String userId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size,
+      @RequestParam(defaultValue = "false") boolean unreadOnly,
+      @RequestParam(required = false) Instant since) {
+    NotificationPageDto page;
+    try {
+      page = notificationService.getNotificationsForUser(
+          userId, cursor, size, unreadOnly, since);
+    }
+    catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.items());
   }
 
   @PostMapping("/mark-as-unread/{notificationId}")
@@ -105,6 +152,28 @@ public class NotificationController {
         );
   }
 
+  /**
+   * Marks notifications as read, either the given ones or all of the
+   * caller's received up to {@code upTo}.
+   */
+  @PostMapping("/mark-as-read")
+  public ResponseEntity<Map<String, Integer>> markAllAsRead(
+      Principal principal,
+      @RequestBody MarkAsReadRequestDto request) {
+    int updated;
+    if (request.ids() != null && !request.ids().isEmpty()) {
+      updated = notificationService.markAllAsRead(request.ids());
+    }
+    else if (request.userId() != null && !request.userId().isBlank()) {
+      updated = notificationService.markAllAsRead(
+          caller(principal, request.userId()), Optional.ofNullable(request.upTo()).orElseGet(Instant::now));
+    }
+    else {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provide either ids or userId");
+    }
+    return ResponseEntity.ok(Map.of("updated", updated));
+  }
+
   @PostMapping("/mark-as-read/{notificationId}")
   public ResponseEntity<Notification> markAsRead(@PathVariable String notificationId) {
     Optional<Notification> notificationOpt = notificationService.getAndMarkAsRead(notificationId);
@@ -115,4 +184,44 @@ public class NotificationController {
         );
   }
 
+  /**
+   * Returns the caller's email digest window.
+   */
+  @GetMapping("/digest")
+  public ResponseEntity<DigestPreferenceDto> getDigestPreference(
+      Principal principal,
+      @RequestParam(required = false) String userId) {
+    return ResponseEntity.ok(digestPreferenceService.getPreference(caller(principal, userId)));
+  }
+
+  /**
+   * Sets the caller's email digest window. While a window is set, regular
+   * notification emails are collected and sent as one digest email per
+   * window; priority notifications are still mailed right away.
+   */
+  @PutMapping("/digest")
+  public ResponseEntity<DigestPreferenceDto> updateDigestPreference(
+      Principal principal,
+      @RequestBody DigestPreferenceDto request) {
+    String userId = caller(principal, request.userId());
+    try {
+      return ResponseEntity.ok(
+          digestPreferenceService.updatePreference(userId, request.windowMinutes()));
+    }
+    catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the calling user (the JWT subject). A userId given by the client
+   * has to be the caller's own.
+   */
+  private static String caller(Principal principal, String userId) {
+    if (userId != null && !userId.isBlank() && !userId.equals(principal.getName())) {
+      throw new ResponseStatusException(
+          HttpStatus.FORBIDDEN, "Data of other users cannot be accessed");
+    }
+    return principal.getName();
+  }
 }
@@ -0,0 +1,34 @@
+package com.ase.notificationservice.controllers;
+
+import java.security.Principal;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import com.ase.notificationservice.services.NotificationPublisher;
+import com.ase.notificationservice.services.NotificationService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * STOMP controller for client-initiated notification messages.
+ */
+@Controller
+@RequiredArgsConstructor
+public class NotificationSocketController {
+
+  private final NotificationService notificationService;
+  private final NotificationPublisher notificationPublisher;
+
+  /**
+   * Sends the newest page of the connected user's inbox as a {@code Sync}
+   * event to {@code /user/queue/notifications}. Clients call this once after
+   * subscribing or after a reconnect and page further over REST with the
+   * event's cursor; afterwards they only receive deltas.
+   *
+   * @param principal the authenticated STOMP user
+   */
+  @MessageMapping("/notifications/sync")
+  public void sync(Principal principal) {
+    String userId = principal.getName();
+    notificationPublisher.publishSync(userId,
+        notificationService.getNotificationsForUser(userId, null, null, false, null));
+  }
+}
@@ -0,0 +1,12 @@
+package com.ase.notificationservice.dtos;
+
+/**
+ * A user's email digest window in minutes. 0 means every email is sent
+ * right away.
+ */
+public record DigestPreferenceDto(
+    String userId,
+    int windowMinutes
+) {
+
+}
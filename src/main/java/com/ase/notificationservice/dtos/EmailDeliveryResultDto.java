@@ -0,0 +1,17 @@
+package com.ase.notificationservice.dtos;
+
+import com.ase.notificationservice.enums.DeliveryStatus;
+
+/**
+ * Outcome of sending an email to one recipient. {@code Failed} means every
+ * attempt failed temporarily, {@code Rejected} means the mail server
+ * permanently refused the address and it was not retried.
+ */
+public record EmailDeliveryResultDto(
+    String recipient,
+    DeliveryStatus status,
+    int attempts,
+    String error
+) {
+
+}
@@ -16,7 +16,8 @@ public record EmailNotificationRequestDto(
     EmailTemplate template,
     Map<String, Object> variables,
     String ctaLink,
-    String replyTo
+    String replyTo,
+    Boolean priority
 ) {
 
 }
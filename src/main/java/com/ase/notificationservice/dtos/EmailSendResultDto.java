@@ -0,0 +1,33 @@
+package com.ase.notificationservice.dtos;
+
+import java.util.List;
+import com.ase.notificationservice.enums.DeliveryStatus;
+
+/**
+ * Result of an email request, with per-recipient outcomes and totals.
+ */
+public record EmailSendResultDto(
+    int sent,
+    int failed,
+    int rejected,
+    List<EmailDeliveryResultDto> recipients
+) {
+
+  /**
+   * Builds the result from per-recipient outcomes.
+   *
+   * @param recipients the outcome for each recipient
+   * @return the result with totals
+   */
+  public static EmailSendResultDto of(List<EmailDeliveryResultDto> recipients) {
+    return new EmailSendResultDto(
+        count(recipients, DeliveryStatus.Sent),
+        count(recipients, DeliveryStatus.Failed),
+        count(recipients, DeliveryStatus.Rejected),
+        recipients);
+  }
+
+  private static int count(List<EmailDeliveryResultDto> recipients, DeliveryStatus status) {
+    return (int) recipients.stream().filter(r -> r.status() == status).count();
+  }
+}
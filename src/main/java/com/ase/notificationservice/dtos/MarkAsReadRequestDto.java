@@ -0,0 +1,17 @@
+package com.ase.notificationservice.dtos;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bulk mark-as-read request. Either {@code ids} lists the notifications to
+ * mark, or {@code userId} selects all of that user's notifications received
+ * up to {@code upTo} (defaults to now).
+ */
+public record MarkAsReadRequestDto(
+    List<String> ids,
+    String userId,
+    Instant upTo
+) {
+
+}
@@ -0,0 +1,25 @@
+package com.ase.notificationservice.dtos;
+
+import java.time.Instant;
+import java.util.List;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.NotificationEventType;
+
+/**
+ * Message pushed to a user's notification queue. {@code Created} and
+ * {@code Updated} events carry only the affected notifications, {@code Sync}
+ * events carry the first page of the inbox and are only sent on request;
+ * their {@code nextCursor} continues it via {@code GET /notifications} and
+ * is null if the inbox fits on one page. {@code ReadUpTo} events carry no
+ * notifications; every notification received at or before {@code readUpTo}
+ * is now read.
+ */
+public record NotificationEventDto(
+    NotificationEventType type,
+    List<Notification> notifications,
+    long unreadCount,
+    Instant readUpTo,
+    String nextCursor
+) {
+
+}
@@ -0,0 +1,15 @@
+package com.ase.notificationservice.dtos;
+
+import java.util.List;
+import com.ase.notificationservice.entities.Notification;
+
+/**
+ * One page of a user's inbox, newest first. {@code nextCursor} is null on
+ * the last page.
+ */
+public record NotificationPageDto(
+    List<Notification> items,
+    String nextCursor
+) {
+
+}
@@ -0,0 +1,36 @@
+package com.ase.notificationservice.entities;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Entity holding a user's email digest window. While a window is set, the
+ * user's regular notification emails are collected in the outbox and sent
+ * as one digest email when the window ends.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "digest_preference")
+@NoArgsConstructor
+@SuperBuilder
+@ToString
+public class DigestPreference {
+  @Id
+  @Column(name = "user_id", length = 255, nullable = false, updatable = false)
+  private String userId;
+
+  @Column(name = "window_minutes", nullable = false)
+  private int windowMinutes;
+
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+}
@@ -0,0 +1,80 @@
+package com.ase.notificationservice.entities;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
+import com.ase.notificationservice.enums.EmailTemplate;
+import com.ase.notificationservice.enums.OutboxStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Entity representing a pending email for a notification. Written in the
+ * same transaction as the notification itself and drained by the
+ * {@link com.ase.notificationservice.services.EmailOutboxDispatcher}.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "email_outbox")
+@NoArgsConstructor
+@SuperBuilder
+@ToString
+public class EmailOutboxEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @UuidGenerator
+  @Column(length = 255, nullable = false, updatable = false)
+  private String id;
+
+  @Column(name = "notification_id", nullable = false)
+  private String notificationId;
+
+  @Column(name = "job_id")
+  private String jobId;
+
+  @Column(name = "user_id")
+  private String userId;
+
+  @Column(nullable = false)
+  private boolean digest;
+
+  @Enumerated(EnumType.STRING)
+  @Column
+  private EmailTemplate template;
+
+  @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+  @Column
+  private String variables;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxStatus status;
+
+  @Column
+  private int attempts;
+
+  @Column(name = "next_attempt_at")
+  private Instant nextAttemptAt;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  @Column(name = "created_at")
+  private Instant createdAt;
+
+  @Column(name = "sent_at")
+  private Instant sentAt;
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import org.hibernate.annotations.UuidGenerator;
 import com.ase.notificationservice.enums.NotificationType;
@@ -24,7 +25,9 @@ import lombok.experimental.SuperBuilder;
 @Setter
 @Getter
 @Entity
-@Table(name = "notification")
+@Table(name = "notification", indexes = {
+    @Index(name = "idx_notification_user_received", columnList = "user_id, received_at DESC")
+})
 @NoArgsConstructor
 @SuperBuilder
 @ToString
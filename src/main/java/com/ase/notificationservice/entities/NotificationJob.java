@@ -0,0 +1,66 @@
+package com.ase.notificationservice.entities;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.UuidGenerator;
+import com.ase.notificationservice.enums.JobStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Entity tracking the progress of an asynchronously delivered notification
+ * request. Stored in the database so that every replica can answer status
+ * queries, regardless of which one accepted the request.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "notification_job")
+@NoArgsConstructor
+@SuperBuilder
+@ToString
+public class NotificationJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @UuidGenerator
+  @Column(length = 255, nullable = false, updatable = false)
+  private String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column
+  private JobStatus status;
+
+  @Column
+  private int resolved;
+
+  @Column
+  private int persisted;
+
+  @Column
+  private int pushed;
+
+  @Column
+  private int mailed;
+
+  @Column
+  private int failed;
+
+  @Column(name = "error_message", length = 255)
+  private String errorMessage;
+
+  @Column(name = "created_at")
+  private Instant createdAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+}
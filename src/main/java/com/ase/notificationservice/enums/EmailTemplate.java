@@ -7,7 +7,8 @@ import lombok.Getter;
 @Getter
 public enum EmailTemplate {
   RESET_PASSWORD("password"),
-  GENERIC("generic-template");
+  GENERIC("generic-template"),
+  DIGEST("digest");
   
   private final String fileName;
 
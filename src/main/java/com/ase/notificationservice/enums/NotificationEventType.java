@@ -0,0 +1,5 @@
+package com.ase.notificationservice.enums;
+
+public enum NotificationEventType {
+  Created, Updated, ReadUpTo, Sync
+}
@@ -1,20 +1,82 @@
 package com.ase.notificationservice.mock;
 
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
 
+/**
+ * Stand-in for the user service. The client only prefixes the group path
+ * with /api/v1, so point {@code user-service.url} at
+ * {@code http://localhost:8080/api/v1} when using it.
+ */
 @Profile("mock")
 @RestController
-@RequestMapping("/users")
+@RequiredArgsConstructor
+@EnableConfigurationProperties(MockUserServiceConfig.class)
 public class MockUserController {
-  @GetMapping("/{id}")
+  private final MockUserServiceConfig config;
+
+  @GetMapping("/users/{id}")
   public UserResponse getUser(@PathVariable String id) {
+    simulateLatency();
+    return user(id);
+  }
+
+  // stand-in for a bulk lookup endpoint, enable with user-service.bulk-lookup-path=/users/bulk
+  @PostMapping("/users/bulk")
+  public List<UserResponse> getUsers(@RequestBody List<String> ids) {
+    simulateLatency();
+    return ids.stream().map(this::user).toList();
+  }
+
+  /**
+   * Returns a group with the configured number of members, named
+   * {@code <group>-0} to {@code <group>-<size - 1>}.
+   */
+  @GetMapping("/api/v1/group/{groupName}")
+  public GroupResponse getGroup(@PathVariable String groupName) {
+    simulateLatency();
+    int size = config.getGroupSizes().getOrDefault(groupName, config.getDefaultGroupSize());
+    List<StudentResponse> students = IntStream.range(0, size)
+        .mapToObj(i -> new StudentResponse(groupName + "-" + i))
+        .toList();
+    return new GroupResponse(groupName, students.size(), students);
+  }
+
+  private UserResponse user(String id) {
     return new UserResponse(id, "example@example.com");
   }
 
+  private void simulateLatency() {
+    long delay = config.getLatencyMs();
+    if (config.getLatencyJitterMs() > 0) {
+      delay += ThreadLocalRandom.current().nextLong(config.getLatencyJitterMs() + 1);
+    }
+    if (delay <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(delay);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   record UserResponse(String id, String email) {
   }
+
+  record GroupResponse(String name, Integer students_count, List<StudentResponse> students) {
+  }
+
+  record StudentResponse(String uuid) {
+  }
 }
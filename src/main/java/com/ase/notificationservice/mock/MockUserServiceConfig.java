@@ -0,0 +1,36 @@
+package com.ase.notificationservice.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Data;
+
+/**
+ * Shape and speed of the mocked user service.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+@ConfigurationProperties(prefix = "mock.user-service")
+@Data
+public class MockUserServiceConfig {
+
+  /**
+   * Number of members of groups not listed in {@link #groupSizes}.
+   */
+  private int defaultGroupSize = 10;
+
+  /**
+   * Number of members per group name.
+   */
+  private Map<String, Integer> groupSizes = new HashMap<>();
+
+  /**
+   * Time in milliseconds every request is delayed by.
+   */
+  private long latencyMs;
+
+  /**
+   * Upper bound in milliseconds of a random delay added on top of
+   * {@link #latencyMs}.
+   */
+  private long latencyJitterMs;
+}
@@ -0,0 +1,11 @@
+package com.ase.notificationservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.ase.notificationservice.entities.DigestPreference;
+
+/**
+ * Repository interface for managing DigestPreference entities.
+ */
+public interface DigestPreferenceRepository
+    extends JpaRepository<DigestPreference, String> {
+}
@@ -0,0 +1,109 @@
+package com.ase.notificationservice.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import com.ase.notificationservice.entities.EmailOutboxEntry;
+import com.ase.notificationservice.enums.OutboxStatus;
+
+/**
+ * Repository interface for managing EmailOutboxEntry entities.
+ */
+public interface EmailOutboxRepository
+    extends JpaRepository<EmailOutboxEntry, String> {
+
+  /**
+   * Locks the next due entries outside of digests, including entries whose
+   * {@code Sending} lease ran out. Rows already locked by another dispatcher
+   * thread or replica are skipped, so concurrent dispatchers never pick up
+   * the same entry. Must be called inside a transaction.
+   *
+   * @param now   entries scheduled at or before this instant are due
+   * @param limit maximum number of entries to lock
+   * @return the locked entries
+   */
+  @Query(value = "SELECT * FROM email_outbox "
+      + "WHERE status IN ('Pending', 'Sending') AND digest = false AND next_attempt_at <= ?1 "
+      + "ORDER BY next_attempt_at LIMIT ?2 "
+      + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<EmailOutboxEntry> lockNextBatch(Instant now, int limit);
+
+  /**
+   * Locks all buffered digest entries of the users whose digest is due,
+   * ordered by user, including entries whose {@code Sending} lease ran out.
+   * Like {@link #lockNextBatch}, rows locked by another dispatcher are
+   * skipped. Must be called inside a transaction.
+   *
+   * @param now       digests scheduled at or before this instant are due
+   * @param userLimit maximum number of users whose digests are locked
+   * @return the locked entries
+   */
+  @Query(value = "SELECT * FROM email_outbox "
+      + "WHERE digest = true "
+      + "AND (status = 'Pending' OR (status = 'Sending' AND next_attempt_at <= ?1)) "
+      + "AND user_id IN ("
+      + "SELECT user_id FROM email_outbox "
+      + "WHERE status IN ('Pending', 'Sending') AND digest = true AND next_attempt_at <= ?1 "
+      + "GROUP BY user_id ORDER BY MIN(next_attempt_at) LIMIT ?2) "
+      + "ORDER BY user_id, created_at "
+      + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<EmailOutboxEntry> lockDueDigests(Instant now, int userLimit);
+
+  /**
+   * Returns the flush time of each user's open digest.
+   *
+   * @param userIds the users to look up
+   * @param status  status of buffered entries, i.e. {@link OutboxStatus#Pending}
+   * @return one row per user with buffered entries
+   */
+  @Query("SELECT e.userId AS userId, MIN(e.nextAttemptAt) AS flushAt "
+      + "FROM EmailOutboxEntry e WHERE e.digest = true AND e.status = ?2 "
+      + "AND e.userId IN ?1 GROUP BY e.userId")
+  List<DigestWindow> findDigestWindows(Collection<String> userIds, OutboxStatus status);
+
+  /**
+   * Returns the users whose open digest holds at least {@code size} entries.
+   *
+   * @param userIds the users to check
+   * @param status  status of buffered entries, i.e. {@link OutboxStatus#Pending}
+   * @param size    the threshold
+   * @return the matching user IDs
+   */
+  @Query("SELECT e.userId FROM EmailOutboxEntry e WHERE e.digest = true AND e.status = ?2 "
+      + "AND e.userId IN ?1 GROUP BY e.userId HAVING COUNT(e) >= ?3")
+  List<String> findUsersWithDigestSize(
+      Collection<String> userIds, OutboxStatus status, long size);
+
+  /**
+   * Moves the flush time of the users' open digests.
+   *
+   * @param userIds the users whose digests are rescheduled
+   * @param status  status of buffered entries, i.e. {@link OutboxStatus#Pending}
+   * @param flushAt the new flush time
+   * @return number of updated entries
+   */
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE EmailOutboxEntry e SET e.nextAttemptAt = ?3 "
+      + "WHERE e.digest = true AND e.status = ?2 AND e.userId IN ?1")
+  int rescheduleDigests(Collection<String> userIds, OutboxStatus status, Instant flushAt);
+
+  /**
+   * Counts the entries in a status.
+   *
+   * @param status the status
+   * @return number of entries
+   */
+  long countByStatus(OutboxStatus status);
+
+  /**
+   * Projection of the flush time of a user's open digest.
+   */
+  interface DigestWindow {
+    String getUserId();
+
+    Instant getFlushAt();
+  }
+}
@@ -0,0 +1,18 @@
+package com.ase.notificationservice.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import com.ase.notificationservice.entities.NotificationJob;
+
+/**
+ * Repository interface for managing NotificationJob entities.
+ */
+public interface NotificationJobRepository
+    extends JpaRepository<NotificationJob, String> {
+
+  @Modifying
+  @Query("UPDATE NotificationJob j SET j.mailed = j.mailed + ?2, j.failed = j.failed + ?3 "
+      + "WHERE j.id = ?1")
+  int addMailResults(String id, int mailed, int failed);
+}
@@ -1,7 +1,12 @@
 package com.ase.notificationservice.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import com.ase.notificationservice.entities.Notification;
 
@@ -12,6 +17,63 @@ import com.ase.notificationservice.entities.Notification;
 public interface NotificationRepository
     extends JpaRepository<Notification, String> {
 
-  @Query("SELECT n FROM Notification n WHERE n.userId = ?1")
+  @Query("SELECT n FROM Notification n WHERE n.userId = ?1 "
+      + "ORDER BY n.receivedAt DESC, n.id DESC")
   List<Notification> findByUserId(String strings);
+
+  // The unread variants are separate queries rather than a boolean
+  // parameter, so that prepared (generic) plans can use the partial index.
+
+  @Query("SELECT n FROM Notification n WHERE n.userId = ?1 AND n.receivedAt >= ?2 "
+      + "ORDER BY n.receivedAt DESC, n.id DESC")
+  Slice<Notification> findInboxPage(String userId, Instant since, Pageable pageable);
+
+  @Query("SELECT n FROM Notification n WHERE n.userId = ?1 AND n.readAt IS NULL "
+      + "AND n.receivedAt >= ?2 "
+      + "ORDER BY n.receivedAt DESC, n.id DESC")
+  Slice<Notification> findUnreadInboxPage(String userId, Instant since, Pageable pageable);
+
+  @Query("SELECT n FROM Notification n WHERE n.userId = ?1 AND n.receivedAt >= ?2 "
+      + "AND (n.receivedAt < ?3 OR (n.receivedAt = ?3 AND n.id < ?4)) "
+      + "ORDER BY n.receivedAt DESC, n.id DESC")
+  Slice<Notification> findInboxPageAfter(
+      String userId, Instant since, Instant cursorReceivedAt, String cursorId,
+      Pageable pageable);
+
+  @Query("SELECT n FROM Notification n WHERE n.userId = ?1 AND n.readAt IS NULL "
+      + "AND n.receivedAt >= ?2 "
+      + "AND (n.receivedAt < ?3 OR (n.receivedAt = ?3 AND n.id < ?4)) "
+      + "ORDER BY n.receivedAt DESC, n.id DESC")
+  Slice<Notification> findUnreadInboxPageAfter(
+      String userId, Instant since, Instant cursorReceivedAt, String cursorId,
+      Pageable pageable);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Notification n SET n.readAt = ?2 WHERE n.id = ?1")
+  int updateReadAt(String id, Instant readAt);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Notification n SET n.readAt = ?2 WHERE n.id IN ?1 AND n.readAt IS NULL")
+  int markReadByIdIn(Collection<String> ids, Instant readAt);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Notification n SET n.readAt = ?3 "
+      + "WHERE n.userId = ?1 AND n.readAt IS NULL AND n.receivedAt <= ?2")
+  int markReadByUserIdUpTo(String userId, Instant upTo, Instant readAt);
+
+  @Query("SELECT COUNT(n) FROM Notification n WHERE n.userId = ?1 AND n.readAt IS NULL")
+  long countUnreadByUserId(String userId);
+
+  @Query("SELECT n.userId AS userId, COUNT(n) AS unread FROM Notification n "
+      + "WHERE n.userId IN ?1 AND n.readAt IS NULL GROUP BY n.userId")
+  List<UnreadCount> countUnreadByUserIdIn(Collection<String> userIds);
+
+  /**
+   * Projection of the number of unread notifications per user.
+   */
+  interface UnreadCount {
+    String getUserId();
+
+    long getUnread();
+  }
 }
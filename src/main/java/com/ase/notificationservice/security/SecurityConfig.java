@@ -17,20 +17,30 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public JwtAuthenticationConverter jwtAuthenticationConverter() {
     JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
     jwtConverter.setJwtGrantedAuthoritiesConverter(new JwtAuthConverter());
+    return jwtConverter;
+  }
 
+  @Bean
+  public SecurityFilterChain filterChain(HttpSecurity http,
+                                         JwtAuthenticationConverter jwtConverter)
+      throws Exception {
 
     //the role always has to be capitalized
     http
         .csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(authorize -> authorize
-            .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+            // actuator is served on management.server.port only, which is not exposed publicly
+            .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/prometheus")
+              .permitAll()
             .requestMatchers("/demo").hasRole("DEFAULT-ROLES-SAU")
             .requestMatchers(HttpMethod.GET, "/notifications").hasRole("DEFAULT-ROLES-SAU")
+            .requestMatchers("/notifications/digest").hasRole("DEFAULT-ROLES-SAU")
             .requestMatchers(HttpMethod.POST, "/notifications")
               .hasRole("Area-4.Team-15.Write.SendNotification".toUpperCase(Locale.ROOT))
+            // STOMP clients authenticate on CONNECT, see StompAuthChannelInterceptor
             .requestMatchers("/ws/**").permitAll()
             .requestMatchers("/admin/**").hasRole("admin")
             .anyRequest().authenticated())
@@ -0,0 +1,64 @@
+package com.ase.notificationservice.security;
+
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Authenticates STOMP sessions on CONNECT. A session whose handshake was
+ * already authenticated (e.g. via the {@code auth_token} query parameter)
+ * keeps that user; otherwise the bearer token is taken from the
+ * {@code Authorization} or {@code auth_token} CONNECT header and validated
+ * like an HTTP request. The resulting principal name (the JWT subject) is
+ * what {@code convertAndSendToUser} routes on.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+  private final JwtDecoder jwtDecoder;
+  private final JwtAuthenticationConverter jwtAuthenticationConverter;
+
+  @Override
+  public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+    StompHeaderAccessor accessor =
+        MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())
+        || accessor.getUser() != null) {
+      return message;
+    }
+
+    String token = resolveToken(accessor);
+    if (token == null) {
+      throw new AuthenticationCredentialsNotFoundException("Missing bearer token on CONNECT");
+    }
+    try {
+      accessor.setUser(jwtAuthenticationConverter.convert(jwtDecoder.decode(token)));
+    }
+    catch (JwtException e) {
+      throw new BadCredentialsException("Invalid bearer token on CONNECT", e);
+    }
+    return message;
+  }
+
+  private String resolveToken(StompHeaderAccessor accessor) {
+    String authHeader = accessor.getFirstNativeHeader("Authorization");
+    if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
+      return authHeader.substring(QueryParameterBearerTokenResolver.BEARER_TOKEN_PREFIX_LENGTH);
+    }
+    String token = accessor.getFirstNativeHeader(QueryParameterBearerTokenResolver.TOKEN_PARAM);
+    return StringUtils.hasText(token) ? token : null;
+  }
+}
@@ -0,0 +1,65 @@
+package com.ase.notificationservice.services;
+
+import java.time.Instant;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.ase.notificationservice.config.DeliveryConfig;
+import com.ase.notificationservice.dtos.DigestPreferenceDto;
+import com.ase.notificationservice.entities.DigestPreference;
+import com.ase.notificationservice.repositories.DigestPreferenceRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service for reading and changing users' email digest windows.
+ */
+@Service
+@RequiredArgsConstructor
+public class DigestPreferenceService {
+
+  private final DigestPreferenceRepository digestPreferenceRepository;
+  private final EmailOutboxService emailOutboxService;
+  private final DeliveryConfig deliveryConfig;
+
+  /**
+   * Returns the user's digest window.
+   *
+   * @param userId ID of the user
+   * @return the window, 0 if the user has none
+   */
+  public DigestPreferenceDto getPreference(final String userId) {
+    return digestPreferenceRepository.findById(userId)
+        .map(p -> new DigestPreferenceDto(p.getUserId(), p.getWindowMinutes()))
+        .orElseGet(() -> new DigestPreferenceDto(userId, 0));
+  }
+
+  /**
+   * Sets the user's digest window. Switching digests off sends the emails
+   * buffered so far with the next dispatcher poll; a changed window only
+   * applies to digests opened afterwards.
+   *
+   * @param userId        ID of the user
+   * @param windowMinutes the window in minutes, 0 to switch digests off
+   * @return the stored preference
+   * @throws IllegalArgumentException if the window is out of range
+   */
+  @Transactional
+  public DigestPreferenceDto updatePreference(final String userId, final int windowMinutes) {
+    int maxWindow = deliveryConfig.getDigestMaxWindowMinutes();
+    if (windowMinutes < 0 || windowMinutes > maxWindow) {
+      throw new IllegalArgumentException(
+          "windowMinutes must be between 0 and " + maxWindow);
+    }
+    if (windowMinutes == 0) {
+      digestPreferenceRepository.deleteById(userId);
+      emailOutboxService.flushDigest(userId);
+    }
+    else {
+      digestPreferenceRepository.save(DigestPreference.builder()
+          .userId(userId)
+          .windowMinutes(windowMinutes)
+          .updatedAt(Instant.now())
+          .build());
+    }
+    return new DigestPreferenceDto(userId, windowMinutes);
+  }
+}
@@ -0,0 +1,345 @@
+package com.ase.notificationservice.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ase.notificationservice.config.DeliveryConfig;
+import com.ase.notificationservice.entities.EmailOutboxEntry;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.OutboxStatus;
+import com.ase.notificationservice.repositories.EmailOutboxRepository;
+import com.ase.notificationservice.repositories.NotificationJobRepository;
+import com.ase.notificationservice.repositories.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the email outbox. Every poll starts the configured number of
+ * dispatcher threads unless the previous run is still busy; each thread
+ * repeatedly claims a batch of due entries in a short transaction, locking
+ * them with {@code FOR UPDATE SKIP LOCKED} and leasing them as
+ * {@link OutboxStatus#Sending}. The addresses are then resolved in one go and
+ * the mails sent without holding a transaction or database connection, so
+ * user service calls and waits for the SMTP quota do not pin row locks. The
+ * outcome of every mail is recorded right after it was sent, in its own
+ * transaction. Replicas therefore share the work, and entries of a replica
+ * that dies mid-batch are picked up again once their lease ran out.
+ *
+ * <p>Digest entries are skipped by the regular batches. Once a user's
+ * digest is due, all of the user's buffered entries are locked together
+ * and sent as a single digest email.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final EmailOutboxRepository outboxRepository;
+  private final NotificationRepository notificationRepository;
+  private final NotificationJobRepository jobRepository;
+  private final EmailOutboxService emailOutboxService;
+  private final NotificationService notificationService;
+  private final UserServiceClient userServiceClient;
+  private final DeliveryConfig deliveryConfig;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor dispatchExecutor;
+  private final Timer resolveTimer;
+  private final Counter retryCounter;
+  private final Counter failedCounter;
+  private final Counter digestCounter;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  public EmailOutboxDispatcher(
+      EmailOutboxRepository outboxRepository,
+      NotificationRepository notificationRepository,
+      NotificationJobRepository jobRepository,
+      EmailOutboxService emailOutboxService,
+      NotificationService notificationService,
+      UserServiceClient userServiceClient,
+      DeliveryConfig deliveryConfig,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("outboxDispatchExecutor") TaskExecutor dispatchExecutor,
+      MeterRegistry meterRegistry) {
+    this.outboxRepository = outboxRepository;
+    this.notificationRepository = notificationRepository;
+    this.jobRepository = jobRepository;
+    this.emailOutboxService = emailOutboxService;
+    this.notificationService = notificationService;
+    this.userServiceClient = userServiceClient;
+    this.deliveryConfig = deliveryConfig;
+    this.transactionTemplate = transactionTemplate;
+    this.dispatchExecutor = dispatchExecutor;
+    this.resolveTimer = Timer.builder("notification.email.resolve")
+        .description("Address lookup for one outbox batch")
+        .register(meterRegistry);
+    this.retryCounter = Counter.builder("notification.email.retries")
+        .description("Outbox entries scheduled for another attempt")
+        .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.email.failed")
+        .description("Outbox entries given up on")
+        .register(meterRegistry);
+    this.digestCounter = Counter.builder("notification.email.digests")
+        .description("Digest emails sent")
+        .register(meterRegistry);
+    Gauge.builder("notification.email.pending", outboxRepository,
+            repository -> repository.countByStatus(OutboxStatus.Pending))
+        .description("Emails waiting in the outbox, including scheduled retries")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Starts all dispatcher threads, which run until the outbox has no due
+   * entries left. Returns right away, so the shared scheduler thread is not
+   * held while mails are sent; polls are skipped while a run is in flight.
+   */
+  @Scheduled(fixedDelayString = "${app.delivery.outbox-poll-interval-ms:1000}")
+  public void dispatch() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    List<CompletableFuture<Void>> workers = new ArrayList<>();
+    try {
+      for (int i = 0; i < deliveryConfig.getOutboxDispatcherThreads(); i++) {
+        workers.add(CompletableFuture.runAsync(this::drain, dispatchExecutor));
+      }
+    }
+    catch (TaskRejectedException e) {
+      log.warn("Email outbox dispatcher thread rejected: {}", e.getMessage());
+    }
+    CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+        .whenComplete((result, e) -> running.set(false));
+  }
+
+  private void drain() {
+    int batchSize = deliveryConfig.getOutboxBatchSize();
+    try {
+      int processed;
+      do {
+        processed = dispatchBatch(batchSize);
+      } while (processed == batchSize);
+      do {
+        processed = dispatchDigests(batchSize);
+      } while (processed == batchSize);
+    }
+    catch (RuntimeException e) {
+      log.error("Email outbox dispatch failed: {}", e.getMessage(), e);
+    }
+  }
+
+  private int dispatchBatch(int batchSize) {
+    List<EmailOutboxEntry> batch =
+        claim(now -> outboxRepository.lockNextBatch(now, batchSize));
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, Notification> notifications = loadNotifications(batch);
+    Map<String, String> emails;
+    try {
+      emails = resolveTimer.record(() -> userServiceClient.resolveEmails(
+          notifications.values().stream().map(Notification::getUserId).toList()));
+    }
+    catch (RuntimeException e) {
+      recordFailure(batch, e);
+      // the next poll tries again instead of failing every due entry right away
+      return 0;
+    }
+
+    for (EmailOutboxEntry entry : batch) {
+      send(List.of(entry), () -> {
+        Notification notification = Optional.ofNullable(
+            notifications.get(entry.getNotificationId()))
+            .orElseThrow(() -> new IllegalStateException(
+                "Notification " + entry.getNotificationId() + " no longer exists"));
+        notificationService.deliverEmail(notification,
+            emails.get(notification.getUserId()),
+            Optional.ofNullable(entry.getTemplate()),
+            emailOutboxService.readVariables(entry));
+      });
+    }
+    return batch.size();
+  }
+
+  /**
+   * Sends the due digests of up to {@code userLimit} users.
+   *
+   * @return number of users whose digest was processed
+   */
+  private int dispatchDigests(int userLimit) {
+    List<EmailOutboxEntry> batch =
+        claim(now -> outboxRepository.lockDueDigests(now, userLimit));
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, Notification> notifications = loadNotifications(batch);
+    Map<String, List<EmailOutboxEntry>> digests = batch.stream().collect(
+        Collectors.groupingBy(EmailOutboxEntry::getUserId, LinkedHashMap::new,
+            Collectors.toList()));
+    Map<String, String> emails;
+    try {
+      emails = resolveTimer.record(() -> userServiceClient.resolveEmails(digests.keySet()));
+    }
+    catch (RuntimeException e) {
+      recordFailure(batch, e);
+      return 0;
+    }
+
+    digests.forEach((userId, entries) -> {
+      // entries whose notification was deleted in the meantime are dropped from the digest
+      List<Notification> items = entries.stream()
+          .map(entry -> notifications.get(entry.getNotificationId()))
+          .filter(Objects::nonNull)
+          .toList();
+      boolean sent = send(entries, () -> {
+        if (items.isEmpty()) {
+          throw new IllegalStateException(
+              "Notifications of the digest for " + userId + " no longer exist");
+        }
+        notificationService.deliverDigest(userId, emails.get(userId), items);
+      });
+      if (sent) {
+        digestCounter.increment();
+      }
+    });
+    return digests.size();
+  }
+
+  /**
+   * Locks due entries and leases them to this dispatcher in a short
+   * transaction: they are marked {@link OutboxStatus#Sending}, the attempt
+   * is counted and {@code nextAttemptAt} is moved to the end of the lease.
+   * Entries whose lease ran out, e.g. because the replica died, are due again.
+   */
+  private List<EmailOutboxEntry> claim(Function<Instant, List<EmailOutboxEntry>> lock) {
+    List<EmailOutboxEntry> claimed = transactionTemplate.execute(status -> {
+      Instant now = Instant.now();
+      Instant leaseEnd = now.plus(Duration.ofMillis(deliveryConfig.getOutboxLeaseMs()));
+      List<EmailOutboxEntry> batch = lock.apply(now);
+      for (EmailOutboxEntry entry : batch) {
+        entry.setStatus(OutboxStatus.Sending);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setNextAttemptAt(leaseEnd);
+      }
+      return batch;
+    });
+    return claimed == null ? List.of() : claimed;
+  }
+
+  private Map<String, Notification> loadNotifications(List<EmailOutboxEntry> batch) {
+    return notificationRepository
+        .findAllById(batch.stream().map(EmailOutboxEntry::getNotificationId).toList())
+        .stream()
+        .collect(Collectors.toMap(Notification::getId, Function.identity()));
+  }
+
+  /**
+   * Runs one delivery outside of any transaction and records its outcome
+   * for the given entries.
+   *
+   * @return whether the delivery succeeded
+   */
+  private boolean send(List<EmailOutboxEntry> entries, Runnable delivery) {
+    try {
+      delivery.run();
+    }
+    catch (RuntimeException e) {
+      recordFailure(entries, e);
+      return false;
+    }
+    recordSent(entries);
+    return true;
+  }
+
+  private void recordSent(List<EmailOutboxEntry> claimed) {
+    record(claimed, this::markSent);
+  }
+
+  private void recordFailure(List<EmailOutboxEntry> claimed, RuntimeException e) {
+    Instant now = Instant.now();
+    record(claimed, (entry, jobResults) -> handleFailure(entry, e, now, jobResults));
+  }
+
+  /**
+   * Applies the outcome of a delivery to the claimed entries in a short
+   * transaction. Entries that were claimed again in the meantime, because
+   * the lease ran out, belong to the other dispatcher and are left alone.
+   */
+  private void record(List<EmailOutboxEntry> claimed,
+                      BiConsumer<EmailOutboxEntry, Map<String, int[]>> outcome) {
+    Map<String, Integer> claimedAttempts = claimed.stream().collect(
+        Collectors.toMap(EmailOutboxEntry::getId, EmailOutboxEntry::getAttempts));
+    transactionTemplate.executeWithoutResult(status -> {
+      Map<String, int[]> jobResults = new HashMap<>();
+      for (EmailOutboxEntry entry : outboxRepository.findAllById(claimedAttempts.keySet())) {
+        if (entry.getStatus() == OutboxStatus.Sending
+            && entry.getAttempts() == claimedAttempts.get(entry.getId())) {
+          outcome.accept(entry, jobResults);
+        }
+        else {
+          log.warn("Outbox entry {} was claimed again before its result was recorded",
+              entry.getId());
+        }
+      }
+      jobResults.forEach((jobId, counts) ->
+          jobRepository.addMailResults(jobId, counts[0], counts[1]));
+    });
+  }
+
+  private void markSent(EmailOutboxEntry entry, Map<String, int[]> jobResults) {
+    entry.setStatus(OutboxStatus.Sent);
+    entry.setSentAt(Instant.now());
+    entry.setLastError(null);
+    recordResult(jobResults, entry, 0);
+  }
+
+  private void handleFailure(
+      EmailOutboxEntry entry, RuntimeException e, Instant now, Map<String, int[]> jobResults) {
+    String message = String.valueOf(e.getMessage());
+    entry.setLastError(message.length() > MAX_ERROR_LENGTH
+        ? message.substring(0, MAX_ERROR_LENGTH) : message);
+    // a rejected address will not be accepted on a later attempt either
+    boolean permanent = e instanceof IllegalArgumentException;
+    if (permanent || entry.getAttempts() >= deliveryConfig.getOutboxMaxAttempts()) {
+      log.error("Giving up on outbox entry {} after {} attempts: {}",
+          entry.getId(), entry.getAttempts(), message);
+      entry.setStatus(OutboxStatus.Failed);
+      failedCounter.increment();
+      recordResult(jobResults, entry, 1);
+      return;
+    }
+    long delay = deliveryConfig.getOutboxRetryDelayMs() << (entry.getAttempts() - 1);
+    entry.setStatus(OutboxStatus.Pending);
+    entry.setNextAttemptAt(now.plus(Duration.ofMillis(delay)));
+    retryCounter.increment();
+    log.warn("Outbox entry {} failed (attempt {}), retrying at {}: {}",
+        entry.getId(), entry.getAttempts(), entry.getNextAttemptAt(), message);
+  }
+
+  private void recordResult(Map<String, int[]> jobResults, EmailOutboxEntry entry, int index) {
+    if (entry.getJobId() != null) {
+      jobResults.computeIfAbsent(entry.getJobId(), id -> new int[2])[index]++;
+    }
+  }
+}
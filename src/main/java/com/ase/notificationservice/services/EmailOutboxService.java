@@ -0,0 +1,174 @@
+package com.ase.notificationservice.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.ase.notificationservice.config.DeliveryConfig;
+import com.ase.notificationservice.entities.DigestPreference;
+import com.ase.notificationservice.entities.EmailOutboxEntry;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.EmailTemplate;
+import com.ase.notificationservice.enums.OutboxStatus;
+import com.ase.notificationservice.repositories.DigestPreferenceRepository;
+import com.ase.notificationservice.repositories.EmailOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service writing notification emails to the transactional outbox.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+  private static final TypeReference<Map<String, Object>> VARIABLES_TYPE =
+      new TypeReference<>() {
+      };
+
+  private final EmailOutboxRepository outboxRepository;
+  private final DigestPreferenceRepository digestPreferenceRepository;
+  private final DeliveryConfig deliveryConfig;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Queues one email per notification. Joins the caller's transaction, so
+   * the entries only become visible to the dispatcher once the
+   * notifications themselves are committed.
+   *
+   * <p>Notifications of users with a digest window are buffered as digest
+   * entries due at the end of the user's open window, unless they are
+   * priority notifications or use an explicit template.
+   *
+   * @param notifications saved notifications that should be mailed
+   * @param emailTemplate optional template used for mail delivery
+   * @param variables     optional template variables
+   * @param jobId         ID of the job the notifications belong to, or null
+   * @return number of queued entries
+   */
+  @Transactional
+  public int enqueue(final List<Notification> notifications,
+                     final Optional<EmailTemplate> emailTemplate,
+                     final Optional<Map<String, Object>> variables,
+                     final String jobId) {
+    if (notifications.isEmpty()) {
+      return 0;
+    }
+    String serializedVariables = variables.map(this::serialize).orElse(null);
+    Instant now = Instant.now();
+    // a digest renders its own summary, so explicitly templated mails are never buffered
+    Map<String, Instant> digestWindows = emailTemplate.isPresent()
+        ? Map.of() : openDigestWindows(notifications, now);
+    List<EmailOutboxEntry> entries = notifications.stream()
+        .<EmailOutboxEntry>map(n -> {
+          Instant flushAt = n.isPriority() ? null : digestWindows.get(n.getUserId());
+          return EmailOutboxEntry.builder()
+              .notificationId(n.getId())
+              .jobId(jobId)
+              .userId(n.getUserId())
+              .digest(flushAt != null)
+              .template(emailTemplate.orElse(null))
+              .variables(serializedVariables)
+              .status(OutboxStatus.Pending)
+              .nextAttemptAt(flushAt != null ? flushAt : now)
+              .createdAt(now)
+              .build();
+        })
+        .toList();
+    outboxRepository.saveAll(entries);
+    flushFullDigests(digestWindows.keySet(), now);
+    return entries.size();
+  }
+
+  /**
+   * Sends the user's buffered digest with the next dispatcher poll instead
+   * of at the end of its window.
+   *
+   * @param userId ID of the user
+   * @return number of rescheduled entries
+   */
+  @Transactional
+  public int flushDigest(final String userId) {
+    return outboxRepository.rescheduleDigests(
+        List.of(userId), OutboxStatus.Pending, Instant.now());
+  }
+
+  /**
+   * Restores the template variables stored with an outbox entry.
+   *
+   * @param entry the outbox entry
+   * @return the variables, if any were stored
+   */
+  public Optional<Map<String, Object>> readVariables(final EmailOutboxEntry entry) {
+    if (entry.getVariables() == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(objectMapper.readValue(entry.getVariables(), VARIABLES_TYPE));
+    }
+    catch (JsonProcessingException e) {
+      throw new IllegalStateException(
+          "Unreadable variables in outbox entry " + entry.getId(), e);
+    }
+  }
+
+  /**
+   * Returns the flush time for new digest entries of every non-priority
+   * recipient with a digest window: the end of an already open digest, or
+   * the end of a window starting now.
+   */
+  private Map<String, Instant> openDigestWindows(List<Notification> notifications, Instant now) {
+    Set<String> userIds = notifications.stream()
+        .filter(n -> !n.isPriority())
+        .map(Notification::getUserId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    if (userIds.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, Instant> windows = new HashMap<>();
+    for (DigestPreference preference : digestPreferenceRepository.findAllById(userIds)) {
+      if (preference.getWindowMinutes() > 0) {
+        windows.put(preference.getUserId(),
+            now.plus(Duration.ofMinutes(preference.getWindowMinutes())));
+      }
+    }
+    if (!windows.isEmpty()) {
+      outboxRepository.findDigestWindows(windows.keySet(), OutboxStatus.Pending)
+          .forEach(open -> windows.put(open.getUserId(), open.getFlushAt()));
+    }
+    return windows;
+  }
+
+  private void flushFullDigests(Set<String> userIds, Instant now) {
+    int maxSize = deliveryConfig.getDigestMaxSize();
+    if (userIds.isEmpty() || maxSize <= 0) {
+      return;
+    }
+    List<String> full = outboxRepository.findUsersWithDigestSize(
+        userIds, OutboxStatus.Pending, maxSize);
+    if (!full.isEmpty()) {
+      outboxRepository.rescheduleDigests(full, OutboxStatus.Pending, now);
+    }
+  }
+
+  private String serialize(Map<String, Object> variables) {
+    try {
+      return objectMapper.writeValueAsString(
+          variables == null ? Collections.emptyMap() : variables);
+    }
+    catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Template variables are not serializable", e);
+    }
+  }
+}
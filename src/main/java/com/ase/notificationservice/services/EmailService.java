@@ -2,28 +2,51 @@ package com.ase.notificationservice.services;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.lang.NonNull;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.exceptions.TemplateEngineException;
 import org.thymeleaf.context.Context;
+import com.ase.notificationservice.components.DeliveryMetrics;
+import com.ase.notificationservice.components.PooledJavaMailSender;
+import com.ase.notificationservice.dtos.EmailDeliveryResultDto;
 import com.ase.notificationservice.dtos.EmailNotificationRequestDto;
+import com.ase.notificationservice.dtos.EmailSendResultDto;
+import com.ase.notificationservice.enums.DeliveryStatus;
+import com.ase.notificationservice.enums.EmailTemplate;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
+  /**
+   * Stands in for the recipient's address while a template is rendered, so
+   * a request is rendered once and only this placeholder differs per
+   * recipient.
+   */
+  static final String RECIPIENT_PLACEHOLDER = "${recipientEmail}";
+
   private final JavaMailSender mailSender;
   private final TemplateEngine templateEngine;
+  private final DeliveryMetrics deliveryMetrics;
 
   @Value("${spring.mail.fromAddress:noreply@sau-portal.de}")
   private String fromAddress;
@@ -31,44 +54,226 @@ public class EmailService {
   @Value("${spring.mail.fromName:}")
   private String fromName;
 
+  @Value("${app.mail.retry.max-attempts:3}")
+  private int maxAttempts;
+
+  @Value("${app.mail.retry.delay-ms:1500}")
+  private long retryDelayMs;
+
+  @Value("${app.mail.retry.multiplier:2.0}")
+  private double retryMultiplier;
+
+  @Value("${app.mail.templates.precompile:true}")
+  private boolean precompileTemplates;
+
+  private static final class Delivery {
+    private final String recipient;
+    private final MimeMessage message;
+    private DeliveryStatus status = DeliveryStatus.Failed;
+    private int attempts;
+    private String error;
+
+    private Delivery(String recipient, MimeMessage message) {
+      this.recipient = recipient;
+      this.message = message;
+    }
+
+    private EmailDeliveryResultDto toResult() {
+      return new EmailDeliveryResultDto(recipient, status, attempts, error);
+    }
+  }
+
   private static String escape(String s) {
     return s.replace("&", "&amp;")
         .replace("<", "&lt;")
         .replace(">", "&gt;");
   }
 
-  @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 1500, multiplier = 2.0))
-  public void sendEmail(@NonNull EmailNotificationRequestDto req)
+  /**
+   * Parses every {@link EmailTemplate} before the application reports ready,
+   * so the first email after a deploy does not pay for it. A template that
+   * fails to parse is logged and fails again when it is used.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void precompileTemplates() {
+    if (!precompileTemplates) {
+      return;
+    }
+    for (EmailTemplate template : EmailTemplate.values()) {
+      try {
+        templateEngine.process(template.getFileName(), new Context());
+      }
+      catch (TemplateEngineException e) {
+        log.error("Email template {} could not be parsed: {}",
+            template.getFileName(), e.getMessage());
+      }
+    }
+    log.info("Parsed {} email templates", EmailTemplate.values().length);
+  }
+
+  /**
+   * Sends an email to every recipient, retrying failed recipients with
+   * {@code app.mail.retry.*} settings.
+   *
+   * @param req the email request
+   * @return the outcome per recipient
+   * @throws MessagingException           if a message cannot be built
+   * @throws UnsupportedEncodingException if the sender name cannot be encoded
+   */
+  public EmailSendResultDto sendEmail(@NonNull EmailNotificationRequestDto req)
+      throws MessagingException, UnsupportedEncodingException {
+    return sendEmail(req, maxAttempts);
+  }
+
+  /**
+   * Sends an email to every recipient. Only recipients whose delivery failed
+   * temporarily are sent again, with exponential backoff between attempts;
+   * recipients the server rejected permanently are not retried.
+   *
+   * @param req         the email request
+   * @param maxAttempts number of attempts per recipient
+   * @return the outcome per recipient
+   * @throws MessagingException           if a message cannot be built
+   * @throws UnsupportedEncodingException if the sender name cannot be encoded
+   */
+  public EmailSendResultDto sendEmail(@NonNull EmailNotificationRequestDto req, int maxAttempts)
       throws MessagingException, UnsupportedEncodingException {
     if (req.to() == null || req.to().isEmpty()) {
       throw new IllegalArgumentException("No recipients provided");
     }
+    Timer.Sample render = deliveryMetrics.start();
+    String html = resolveHtml(req);
+    String text = resolveText(req, html);
+    render.stop(deliveryMetrics.timer("mail.render", Tags.of("template",
+        req.template() == null ? "none" : req.template().name())));
+
+    List<Delivery> deliveries = new ArrayList<>(req.to().size());
     for (String recipient : req.to()) {
-      MimeMessage message = mailSender.createMimeMessage();
-      MimeMessageHelper helper =
-          new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+      deliveries.add(new Delivery(recipient, createMessage(req, recipient, text, html)));
+    }
 
-      if (fromName != null && !fromName.isBlank()) {
-        helper.setFrom(fromAddress.trim(), fromName);
+    List<Delivery> pending = deliveries;
+    for (int attempt = 1; !pending.isEmpty(); attempt++) {
+      if (attempt > 1 && !backoff(attempt)) {
+        break;
       }
-      else {
-        helper.setFrom(fromAddress.trim());
+      Map<Object, Exception> failures = send(pending);
+      List<Delivery> retry = new ArrayList<>();
+      for (Delivery delivery : pending) {
+        delivery.attempts = attempt;
+        Exception failure = failures.get(delivery.message);
+        if (failure == null) {
+          delivery.status = DeliveryStatus.Sent;
+          delivery.error = null;
+          continue;
+        }
+        delivery.error = String.valueOf(failure.getMessage());
+        if (isPermanent(failure)) {
+          delivery.status = DeliveryStatus.Rejected;
+        }
+        else if (attempt < maxAttempts) {
+          retry.add(delivery);
+        }
       }
-      if (req.replyTo() != null && !req.replyTo().isBlank()) {
-        helper.setReplyTo(req.replyTo());
+      deliveryMetrics.counter("mail.retries", Tags.empty()).increment(retry.size());
+      pending = retry;
+    }
+    deliveries.forEach(delivery -> deliveryMetrics
+        .counter("mail.deliveries", Tags.of("status", delivery.status.name()))
+        .increment());
+
+    List<EmailDeliveryResultDto> results = deliveries.stream()
+        .map(Delivery::toResult)
+        .toList();
+    EmailSendResultDto result = EmailSendResultDto.of(results);
+    if (result.failed() > 0 || result.rejected() > 0) {
+      log.warn("Email '{}' not delivered to {} of {} recipients",
+          req.subject(), result.failed() + result.rejected(), results.size());
+    }
+    return result;
+  }
+
+  private MimeMessage createMessage(
+      EmailNotificationRequestDto req, String recipient, String text, String html)
+      throws MessagingException, UnsupportedEncodingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper =
+        new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+
+    if (fromName != null && !fromName.isBlank()) {
+      helper.setFrom(fromAddress.trim(), fromName);
+    }
+    else {
+      helper.setFrom(fromAddress.trim());
+    }
+    if (req.replyTo() != null && !req.replyTo().isBlank()) {
+      helper.setReplyTo(req.replyTo());
+    }
+    helper.setTo(recipient);
+    helper.setSubject(req.subject());
+
+    helper.setText(injectRecipient(text, recipient),
+        injectRecipient(html, escape(recipient)));
+    if (Boolean.TRUE.equals(req.priority())) {
+      message.setHeader(PooledJavaMailSender.PRIORITY_HEADER,
+          PooledJavaMailSender.HIGHEST_PRIORITY);
+    }
+    return message;
+  }
+
+  /**
+   * Sends the pending messages as one batch, so they share a pooled SMTP
+   * connection.
+   *
+   * @return the failed messages with their cause, empty if all were sent
+   */
+  private Map<Object, Exception> send(List<Delivery> pending) {
+    Timer.Sample sample = deliveryMetrics.start();
+    try {
+      mailSender.send(pending.stream().map(d -> d.message).toArray(MimeMessage[]::new));
+      sample.stop(deliveryMetrics.timer("mail.send", DeliveryMetrics.outcome(null)));
+      return Map.of();
+    }
+    catch (MailSendException e) {
+      sample.stop(deliveryMetrics.timer("mail.send", DeliveryMetrics.outcome(e)));
+      if (!e.getFailedMessages().isEmpty()) {
+        return e.getFailedMessages();
       }
-      helper.setTo(recipient);
-      helper.setSubject(req.subject());
+      Map<Object, Exception> failures = new HashMap<>();
+      pending.forEach(d -> failures.put(d.message, e));
+      return failures;
+    }
+  }
 
-      String html = resolveHtml(req, recipient);
-      String text = resolveText(req, html);
 
-      helper.setText(text, html);
-      mailSender.send(message);
+  private boolean backoff(int attempt) {
+    long delay = (long) (retryDelayMs * Math.pow(retryMultiplier, attempt - 2));
+    try {
+      Thread.sleep(delay);
+      return true;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
     }
   }
 
-  private String resolveHtml(EmailNotificationRequestDto req, String recipientEmail) {
+  /**
+   * A failure is permanent if the server refused the recipient address
+   * itself, e.g. with a 550 reply to {@code RCPT TO}.
+   */
+  private static boolean isPermanent(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof SendFailedException sendFailed
+          && sendFailed.getInvalidAddresses() != null
+          && sendFailed.getInvalidAddresses().length > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  String resolveHtml(EmailNotificationRequestDto req) {
     if (req.template() != null) {
       Context ctx = new Context();
       Map<String, Object> vars = new HashMap<>();
@@ -78,9 +283,7 @@ public class EmailService {
       if (req.ctaLink() != null && !req.ctaLink().isBlank()) {
         vars.put("ctaLink", req.ctaLink());
       }
-      if (recipientEmail != null) {
-        vars.put("recipientEmail", recipientEmail);
-      }
+      vars.put("recipientEmail", RECIPIENT_PLACEHOLDER);
       ctx.setVariables(vars);
       return templateEngine.process(req.template().getFileName(), ctx);
     }
@@ -91,16 +294,16 @@ public class EmailService {
     throw new IllegalArgumentException("no content, provide either a template or text");
   }
 
-  private String resolveText(EmailNotificationRequestDto req, String html) {
+  String resolveText(EmailNotificationRequestDto req, String html) {
     if (req.text() != null && !req.text().isBlank()) {
       return req.text();
     }
-    return html.replaceAll("<[^>]+>", "");
+    return HtmlToText.convert(html);
   }
 
   private String injectRecipient(
       String content, String recipientEmail) {
     String email = (recipientEmail == null) ? "" : recipientEmail;
-    return content.replace("${recipientEmail}", email);
+    return content.replace(RECIPIENT_PLACEHOLDER, email);
   }
 }
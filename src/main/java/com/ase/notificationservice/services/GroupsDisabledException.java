@@ -0,0 +1,13 @@
+package com.ase.notificationservice.services;
+
+/**
+ * Thrown when a notification addresses groups while group notifications are
+ * disabled ({@code user-service.groups-enabled}).
+ */
+public class GroupsDisabledException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public GroupsDisabledException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,219 @@
+package com.ase.notificationservice.services;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts rendered email HTML into its plain-text alternative in a single
+ * pass. Tags are dropped, block elements become line breaks, the content of
+ * {@code head}, {@code style} and {@code script} is skipped, common entities
+ * are decoded and runs of whitespace collapse into a single space. Links
+ * keep their target in parentheses after the link text.
+ */
+final class HtmlToText {
+
+  private static final Set<String> LINE_TAGS = Set.of("br", "div", "li", "table", "tr");
+  private static final Set<String> PARAGRAPH_TAGS = Set.of(
+      "blockquote", "h1", "h2", "h3", "h4", "h5", "h6", "hr", "ol", "p", "pre", "ul");
+  private static final Set<String> SKIPPED_TAGS = Set.of("head", "script", "style", "title");
+  private static final int MAX_ENTITY_LENGTH = 10;
+  private static final int HEX_RADIX = 16;
+  private static final Pattern HREF = Pattern.compile(
+      "\\shref\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))", Pattern.CASE_INSENSITIVE);
+
+  private final String html;
+  private final StringBuilder out;
+  private boolean pendingSpace;
+  private String linkHref;
+  private int linkStart;
+
+  private HtmlToText(String html) {
+    this.html = html;
+    this.out = new StringBuilder(html.length() / 2);
+  }
+
+  /**
+   * Converts HTML to plain text.
+   *
+   * @param html the HTML document or fragment
+   * @return the text content
+   */
+  static String convert(String html) {
+    return new HtmlToText(html).run();
+  }
+
+  private String run() {
+    int length = html.length();
+    int i = 0;
+    while (i < length) {
+      char c = html.charAt(i);
+      if (c == '<') {
+        if (html.startsWith("<!--", i)) {
+          int end = html.indexOf("-->", i);
+          i = end < 0 ? length : end + "-->".length();
+          continue;
+        }
+        int end = html.indexOf('>', i);
+        if (end < 0) {
+          break;
+        }
+        boolean closing = i + 1 < end && html.charAt(i + 1) == '/';
+        String tag = tagName(closing ? i + 2 : i + 1, end);
+        if (!closing && SKIPPED_TAGS.contains(tag) && html.charAt(end - 1) != '/') {
+          i = skipElement(tag, end + 1);
+          continue;
+        }
+        if (tag.equals("a")) {
+          if (closing) {
+            closeLink();
+          }
+          else {
+            linkHref = href(i, end);
+            linkStart = out.length();
+          }
+        }
+        else if (PARAGRAPH_TAGS.contains(tag)) {
+          lineBreak(2);
+        }
+        else if (LINE_TAGS.contains(tag)) {
+          lineBreak(1);
+        }
+        i = end + 1;
+      }
+      else if (c == '&') {
+        i = entity(i);
+      }
+      else if (Character.isWhitespace(c)) {
+        pendingSpace = true;
+        i++;
+      }
+      else {
+        append(c);
+        i++;
+      }
+    }
+    return out.toString().strip();
+  }
+
+  private String tagName(int start, int end) {
+    int i = start;
+    while (i < end && Character.isLetterOrDigit(html.charAt(i))) {
+      i++;
+    }
+    return html.substring(start, i).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the index after the closing tag of a skipped element. Its content
+   * is not parsed, as scripts and styles may contain '<'.
+   */
+  private int skipElement(String tag, int from) {
+    String closingTag = "</" + tag;
+    for (int i = html.indexOf("</", from); i >= 0; i = html.indexOf("</", i + 2)) {
+      if (html.regionMatches(true, i, closingTag, 0, closingTag.length())) {
+        int end = html.indexOf('>', i);
+        return end < 0 ? html.length() : end + 1;
+      }
+    }
+    return html.length();
+  }
+
+  private String href(int start, int end) {
+    Matcher matcher = HREF.matcher(html).region(start, end);
+    if (!matcher.find()) {
+      return null;
+    }
+    for (int group = 1; group <= matcher.groupCount(); group++) {
+      if (matcher.group(group) != null) {
+        return matcher.group(group).strip().replace("&amp;", "&");
+      }
+    }
+    return null;
+  }
+
+  private void closeLink() {
+    String href = linkHref;
+    linkHref = null;
+    if (href == null || href.isEmpty() || href.startsWith("#")
+        || out.substring(linkStart).strip().equals(href)) {
+      return;
+    }
+    pendingSpace = true;
+    flushSpace();
+    out.append('(').append(href).append(')');
+  }
+
+  private int entity(int start) {
+    int semicolon = html.indexOf(';', start);
+    if (semicolon < 0 || semicolon - start > MAX_ENTITY_LENGTH) {
+      append('&');
+      return start + 1;
+    }
+    String name = html.substring(start + 1, semicolon);
+    switch (name) {
+      case "amp" -> append('&');
+      case "lt" -> append('<');
+      case "gt" -> append('>');
+      case "quot" -> append('"');
+      case "apos", "#39" -> append('\'');
+      case "nbsp" -> pendingSpace = true;
+      case "shy", "zwj", "zwnj" -> {
+        // invisible, used as preheader padding
+      }
+      default -> {
+        if (!numericEntity(name)) {
+          append('&');
+          return start + 1;
+        }
+      }
+    }
+    return semicolon + 1;
+  }
+
+  private boolean numericEntity(String name) {
+    if (name.length() < 2 || name.charAt(0) != '#') {
+      return false;
+    }
+    boolean hex = name.charAt(1) == 'x' || name.charAt(1) == 'X';
+    try {
+      int codePoint = Integer.parseInt(name.substring(hex ? 2 : 1), hex ? HEX_RADIX : 10);
+      if (!Character.isValidCodePoint(codePoint)) {
+        return false;
+      }
+      flushSpace();
+      out.appendCodePoint(codePoint);
+      return true;
+    }
+    catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private void append(char c) {
+    flushSpace();
+    out.append(c);
+  }
+
+  private void flushSpace() {
+    if (pendingSpace && !out.isEmpty() && out.charAt(out.length() - 1) != '\n') {
+      out.append(' ');
+    }
+    pendingSpace = false;
+  }
+
+  private void lineBreak(int count) {
+    pendingSpace = false;
+    if (out.isEmpty()) {
+      return;
+    }
+    int trailing = 0;
+    while (trailing < out.length() && out.charAt(out.length() - 1 - trailing) == '\n') {
+      trailing++;
+    }
+    for (int n = trailing; n < count; n++) {
+      out.append('\n');
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.ase.notificationservice.services;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ase.notificationservice.dtos.NotificationCreationDto;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.entities.NotificationJob;
+import com.ase.notificationservice.enums.JobStatus;
+import com.ase.notificationservice.repositories.NotificationJobRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service accepting notification requests for background delivery and
+ * tracking their progress.
+ */
+@Service
+@Slf4j
+public class NotificationJobService {
+
+  /** Length of the {@code error_message} column. */
+  private static final int MAX_ERROR_LENGTH = 255;
+
+  private final NotificationJobRepository jobRepository;
+  private final NotificationService notificationService;
+  private final TransactionTemplate transactionTemplate;
+  private final TaskExecutor jobExecutor;
+
+  public NotificationJobService(
+      NotificationJobRepository jobRepository,
+      NotificationService notificationService,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("notificationJobExecutor") TaskExecutor jobExecutor) {
+    this.jobRepository = jobRepository;
+    this.notificationService = notificationService;
+    this.transactionTemplate = transactionTemplate;
+    this.jobExecutor = jobExecutor;
+  }
+
+  /**
+   * Registers a job for the request and schedules it on the job executor.
+   *
+   * @param dto the creation request
+   * @return the pending job
+   * @throws org.springframework.core.task.TaskRejectedException if the
+   *     executor queue is full
+   */
+  public NotificationJob submit(final NotificationCreationDto dto) {
+    NotificationJob job = jobRepository.save(NotificationJob.builder()
+        .status(JobStatus.Pending)
+        .createdAt(Instant.now())
+        .build());
+    String jobId = job.getId();
+    try {
+      jobExecutor.execute(() -> run(jobId, dto));
+    }
+    catch (RuntimeException e) {
+      job.setStatus(JobStatus.Failed);
+      job.setErrorMessage(truncate("Rejected: " + e.getMessage()));
+      job.setFinishedAt(Instant.now());
+      jobRepository.save(job);
+      throw e;
+    }
+    return job;
+  }
+
+  /**
+   * Retrieves a job by its ID.
+   *
+   * @param id the job ID
+   * @return an Optional containing the job if found, empty otherwise
+   */
+  public Optional<NotificationJob> findJob(final String id) {
+    return jobRepository.findById(id);
+  }
+
+  private void run(String jobId, NotificationCreationDto dto) {
+    NotificationJob job = jobRepository.findById(jobId).orElseThrow();
+    job.setStatus(JobStatus.Running);
+    job = jobRepository.save(job);
+
+    try {
+      List<String> recipients = notificationService.resolveRecipients(dto);
+      job.setResolved(recipients.size());
+      job = jobRepository.save(job);
+
+      // Job progress commits together with the notifications and their outbox
+      // entries, so the dispatcher's mail counters never race with this save.
+      NotificationJob running = job;
+      job = transactionTemplate.execute(status -> {
+        List<Notification> saved = notificationService.createNotifications(
+            notificationService.buildNotifications(dto, recipients),
+            Optional.ofNullable(dto.getEmailTemplate()),
+            Optional.ofNullable(dto.getVariables()),
+            jobId);
+        running.setPersisted(saved.size());
+        running.setPushed((int) saved.stream().map(Notification::getUserId).distinct().count());
+        running.setStatus(JobStatus.Completed);
+        running.setFinishedAt(Instant.now());
+        return jobRepository.save(running);
+      });
+    }
+    catch (RuntimeException e) {
+      log.error("Notification job {} failed: {}", jobId, e.getMessage(), e);
+      job.setStatus(JobStatus.Failed);
+      job.setErrorMessage(truncate(e.getMessage()));
+      job.setFinishedAt(Instant.now());
+      jobRepository.save(job);
+    }
+  }
+
+  private static String truncate(String message) {
+    return message != null && message.length() > MAX_ERROR_LENGTH
+        ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+}
@@ -0,0 +1,121 @@
+package com.ase.notificationservice.services;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import com.ase.notificationservice.components.NotificationRelay;
+import com.ase.notificationservice.dtos.NotificationEventDto;
+import com.ase.notificationservice.dtos.NotificationPageDto;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.NotificationEventType;
+import com.ase.notificationservice.repositories.NotificationRepository;
+import com.ase.notificationservice.repositories.NotificationRepository.UnreadCount;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Pushes notification changes to {@code /user/queue/notifications} of each
+ * affected user, on every replica via the configured
+ * {@link NotificationRelay}. Users are identified by their principal name,
+ * which is the notification's {@code userId}.
+ * Only the changed notifications and the user's unread counter are sent;
+ * the first inbox page is sent only when a client asks for a sync.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationPublisher {
+
+  private static final String USER_DESTINATION = "/queue/notifications";
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final NotificationRelay notificationRelay;
+  private final NotificationRepository notificationRepository;
+
+  /**
+   * Publishes newly created notifications, one event per user.
+   *
+   * @param notifications the saved notifications
+   */
+  public void publishCreated(final Collection<Notification> notifications) {
+    publish(NotificationEventType.Created, notifications);
+  }
+
+  /**
+   * Publishes a changed notification, e.g. after it was marked as read.
+   *
+   * @param notification the updated notification
+   */
+  public void publishUpdated(final Notification notification) {
+    publish(NotificationEventType.Updated, List.of(notification));
+  }
+
+  /**
+   * Publishes several changed notifications, one event per user.
+   *
+   * @param notifications the updated notifications
+   */
+  public void publishUpdated(final Collection<Notification> notifications) {
+    publish(NotificationEventType.Updated, notifications);
+  }
+
+  /**
+   * Tells a user's clients that everything received up to a point in time
+   * has been marked as read.
+   *
+   * @param userId the user ID
+   * @param upTo   notifications received at or before this instant are read
+   */
+  public void publishReadUpTo(final String userId, final Instant upTo) {
+    send(userId, new NotificationEventDto(NotificationEventType.ReadUpTo, List.of(),
+        notificationRepository.countUnreadByUserId(userId), upTo, null));
+  }
+
+  /**
+   * Sends the first page of a user's inbox with the unread counter; the
+   * client loads further pages over REST with the included cursor. Sync
+   * requests arrive on the node the requesting client is connected to, so
+   * the answer is not relayed.
+   *
+   * @param userId    the user ID
+   * @param firstPage the newest page of the user's inbox
+   */
+  public void publishSync(final String userId, final NotificationPageDto firstPage) {
+    messagingTemplate.convertAndSendToUser(userId, USER_DESTINATION,
+        new NotificationEventDto(NotificationEventType.Sync, firstPage.items(),
+            notificationRepository.countUnreadByUserId(userId), null,
+            firstPage.nextCursor()));
+  }
+
+  private void publish(NotificationEventType type, Collection<Notification> notifications) {
+    if (notifications.isEmpty()) {
+      return;
+    }
+    Map<String, List<Notification>> byUser = notifications.stream()
+        .collect(Collectors.groupingBy(Notification::getUserId));
+    Map<String, Long> unreadCounts = countUnread(byUser.keySet());
+
+    Map<String, NotificationEventDto> events = new LinkedHashMap<>();
+    byUser.forEach((userId, changed) -> events.put(userId,
+        new NotificationEventDto(
+            type, changed, unreadCounts.getOrDefault(userId, 0L), null, null)));
+    notificationRelay.publishToUsers(USER_DESTINATION, events);
+  }
+
+  private Map<String, Long> countUnread(Set<String> userIds) {
+    if (userIds.size() == 1) {
+      String userId = userIds.iterator().next();
+      return Map.of(userId, notificationRepository.countUnreadByUserId(userId));
+    }
+    return notificationRepository.countUnreadByUserIdIn(userIds).stream()
+        .collect(Collectors.toMap(UnreadCount::getUserId, UnreadCount::getUnread));
+  }
+
+  private void send(String userId, NotificationEventDto event) {
+    notificationRelay.publishToUser(userId, USER_DESTINATION, event);
+  }
+}
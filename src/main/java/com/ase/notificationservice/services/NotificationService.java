@@ -1,30 +1,44 @@
 package com.ase.notificationservice.services;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
-import org.springframework.web.reactive.function.client.WebClient;
 import com.ase.notificationservice.DummyData;
-import com.ase.notificationservice.components.GetToken;
+import com.ase.notificationservice.components.DeliveryMetrics;
 import com.ase.notificationservice.config.RepositoryConfig;
-import com.ase.notificationservice.config.UserServiceConfig;
+import com.ase.notificationservice.dtos.EmailDeliveryResultDto;
 import com.ase.notificationservice.dtos.EmailNotificationRequestDto;
+import com.ase.notificationservice.dtos.NotificationCreationDto;
+import com.ase.notificationservice.dtos.NotificationPageDto;
 import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.DeliveryStatus;
 import com.ase.notificationservice.enums.EmailTemplate;
 import com.ase.notificationservice.enums.NotificationType;
 import com.ase.notificationservice.enums.NotifyType;
 import com.ase.notificationservice.repositories.NotificationRepository;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,24 +47,20 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Service
 @Slf4j
-@EnableConfigurationProperties({RepositoryConfig.class, UserServiceConfig.class})
+@EnableConfigurationProperties(RepositoryConfig.class)
 @RequiredArgsConstructor
 public class NotificationService {
 
+  private static final DateTimeFormatter DIGEST_TIME_FORMAT =
+      DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm").withZone(ZoneId.of("Europe/Berlin"));
+
   private final NotificationRepository notificationRepository;
   private final RepositoryConfig repositoryConfig;
-  private final UserServiceConfig userServiceConfig;
-  private final SimpMessagingTemplate messagingTemplate;
+  private final NotificationPublisher notificationPublisher;
   private final EmailService emailService;
-  private final GetToken getToken;
-  private WebClient userClient;
-
-  @jakarta.annotation.PostConstruct
-  void init() {
-    userClient = WebClient.builder()
-        .baseUrl(userServiceConfig.getUrl())
-        .build();
-  }
+  private final EmailOutboxService emailOutboxService;
+  private final UserServiceClient userServiceClient;
+  private final DeliveryMetrics deliveryMetrics;
 
   /**
    * Marks a notification as unread by setting its readAt timestamp to null.
@@ -60,16 +70,7 @@ public class NotificationService {
    */
   @Transactional
   public boolean markAsUnread(final String id) {
-    Optional<Notification> notificationOpt
-        = notificationRepository.findById(id);
-    if (notificationOpt.isPresent()) {
-      Notification notification
-          = notificationOpt.get();
-      notification.setReadAt(null);
-      notificationRepository.save(notification);
-      return true;
-    }
-    return false;
+    return updateReadAt(id, null).isPresent();
   }
 
   /**
@@ -81,15 +82,7 @@ public class NotificationService {
    */
   @Transactional
   public boolean markAsRead(final String id) {
-    Optional<Notification> notificationOpt
-        = notificationRepository.findById(id);
-    if (notificationOpt.isEmpty()) {
-      return false;
-    }
-    Notification notification = notificationOpt.get();
-    notification.setReadAt(Instant.now());
-    notificationRepository.save(notification);
-    return true;
+    return updateReadAt(id, Instant.now()).isPresent();
   }
 
   /**
@@ -100,13 +93,7 @@ public class NotificationService {
    */
   @Transactional
   public Optional<Notification> getAndMarkAsRead(final String id) {
-    Optional<Notification> notificationOpt
-        = notificationRepository.findById(id);
-    notificationOpt.ifPresent(notification -> {
-      notification.setReadAt(Instant.now());
-      notificationRepository.save(notification);
-    });
-    return notificationOpt;
+    return updateReadAt(id, Instant.now());
   }
 
   /**
@@ -117,13 +104,52 @@ public class NotificationService {
    */
   @Transactional
   public Optional<Notification> getAndMarkAsUnread(String id) {
-    Optional<Notification> notificationOpt
-        = notificationRepository.findById(id);
-    notificationOpt.ifPresent(notification -> {
-      notification.setReadAt(null);
-      notificationRepository.save(notification);
-    });
-    return notificationOpt;
+    return updateReadAt(id, null);
+  }
+
+  /**
+   * Marks the given notifications as read with one UPDATE statement.
+   * Notifications that are already read keep their original timestamp.
+   *
+   * @param ids the notification IDs
+   * @return number of notifications that changed from unread to read
+   */
+  @Transactional
+  public int markAllAsRead(final Collection<String> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    int updated = notificationRepository.markReadByIdIn(ids, Instant.now());
+    if (updated > 0) {
+      notificationPublisher.publishUpdated(notificationRepository.findAllById(ids));
+    }
+    return updated;
+  }
+
+  /**
+   * Marks all unread notifications of a user received up to a point in time
+   * as read with one UPDATE statement.
+   *
+   * @param userId the user ID
+   * @param upTo   notifications received at or before this instant are marked
+   * @return number of notifications that changed from unread to read
+   */
+  @Transactional
+  public int markAllAsRead(final String userId, final Instant upTo) {
+    int updated = notificationRepository.markReadByUserIdUpTo(userId, upTo, Instant.now());
+    if (updated > 0) {
+      notificationPublisher.publishReadUpTo(userId, upTo);
+    }
+    return updated;
+  }
+
+  private Optional<Notification> updateReadAt(String id, Instant readAt) {
+    if (notificationRepository.updateReadAt(id, readAt) == 0) {
+      return Optional.empty();
+    }
+    Optional<Notification> updated = notificationRepository.findById(id);
+    updated.ifPresent(notificationPublisher::publishUpdated);
+    return updated;
   }
 
   /**
@@ -137,28 +163,152 @@ public class NotificationService {
                                          final Optional<EmailTemplate> emailTemplate,
                                          final Optional<Map<String, Object>> variables) {
     log.info("Notification to publish: {}", notification);
-    Notification saved = notificationRepository.save(notification);
+    if (notification.getReceivedAt() == null) {
+      notification.setReceivedAt(Instant.now());
+    }
+    Tags tags = DeliveryMetrics.tags(notification);
+    Notification saved = deliveryMetrics.timer("notification.persist", tags)
+        .record(() -> notificationRepository.save(notification));
+    deliveryMetrics.counter("notification.created", tags).increment();
 
-    messagingTemplate.convertAndSend(
-        "/topic/notifications/" + notification.getUserId(),
-        notificationRepository.findByUserId(notification.getUserId()));
+    deliveryMetrics.timer("notification.push", tags)
+        .record(() -> notificationPublisher.publishCreated(List.of(saved)));
 
     if (shouldSendMail(saved)) {
-      if (TransactionSynchronizationManager.isSynchronizationActive()) {
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-          @Override
-          public void afterCommit() {
-            sendEmailInline(saved, emailTemplate, variables);
-          }
-        });
-      }
-      else {
-        sendEmailInline(saved, emailTemplate, variables);
-      }
+      emailOutboxService.enqueue(List.of(saved), emailTemplate, variables, null);
     }
     return saved;
   }
 
+  /**
+   * Creates and publishes many notifications at once.
+   *
+   * @see #createNotifications(List, Optional, Optional, String)
+   */
+  @Transactional
+  public List<Notification> createNotifications(
+      final List<Notification> notifications,
+      final Optional<EmailTemplate> emailTemplate,
+      final Optional<Map<String, Object>> variables) {
+    return createNotifications(notifications, emailTemplate, variables, null);
+  }
+
+  /**
+   * Creates and publishes many notifications at once. All rows are persisted
+   * through a single {@code saveAll} (batched by Hibernate), every recipient
+   * is pushed just the new notification and an unread counter, and mails are
+   * queued in the email outbox within the same transaction.
+   *
+   * @param notifications the notifications to create
+   * @param emailTemplate optional template used for mail delivery
+   * @param variables     optional template variables
+   * @param jobId         ID of the job the notifications belong to, or null
+   * @return the saved notifications
+   */
+  @Transactional
+  public List<Notification> createNotifications(
+      final List<Notification> notifications,
+      final Optional<EmailTemplate> emailTemplate,
+      final Optional<Map<String, Object>> variables,
+      final String jobId) {
+    if (notifications.isEmpty()) {
+      return List.of();
+    }
+    log.info("Publishing {} notifications in bulk", notifications.size());
+    Instant now = Instant.now();
+    notifications.stream()
+        .filter(n -> n.getReceivedAt() == null)
+        .forEach(n -> n.setReceivedAt(now));
+    // a bulk request creates the same kind of notification for every recipient
+    Tags tags = DeliveryMetrics.tags(notifications.get(0));
+    List<Notification> saved = deliveryMetrics.timer("notification.persist", tags)
+        .record(() -> notificationRepository.saveAll(notifications));
+    deliveryMetrics.counter("notification.created", tags).increment(saved.size());
+
+    deliveryMetrics.timer("notification.push", tags)
+        .record(() -> notificationPublisher.publishCreated(saved));
+
+    emailOutboxService.enqueue(
+        saved.stream().filter(this::shouldSendMail).toList(),
+        emailTemplate, variables, jobId);
+    return saved;
+  }
+
+  /**
+   * Expands the users and groups of a creation request into a distinct list
+   * of recipient user IDs.
+   *
+   * @param dto the creation request
+   * @return distinct recipient user IDs
+   * @throws GroupsDisabledException if group notifications are disabled
+   * @throws UserServiceException    if the group service request fails
+   */
+  public List<String> resolveRecipients(final NotificationCreationDto dto) {
+    return UserServiceClient.await(resolveRecipientsAsync(dto));
+  }
+
+  /**
+   * Non-blocking variant of {@link #resolveRecipients(NotificationCreationDto)}.
+   *
+   * @param dto the creation request
+   * @return future distinct recipient user IDs
+   */
+  public CompletableFuture<List<String>> resolveRecipientsAsync(
+      final NotificationCreationDto dto) {
+    Tags tags = DeliveryMetrics.tags(dto.getNotifyType(), dto.getNotificationType());
+    Timer.Sample sample = deliveryMetrics.start();
+    return expandRecipients(dto).whenComplete((recipients, error) -> {
+      sample.stop(deliveryMetrics.timer("notification.recipients",
+          tags.and(DeliveryMetrics.outcome(error))));
+      if (recipients != null) {
+        deliveryMetrics.summary("notification.recipients.count", tags)
+            .record(recipients.size());
+      }
+    });
+  }
+
+  private CompletableFuture<List<String>> expandRecipients(final NotificationCreationDto dto) {
+    Set<String> allUsers = new LinkedHashSet<>();
+    if (dto.getUsers() != null) {
+      allUsers.addAll(Arrays.asList(dto.getUsers()));
+    }
+    if (dto.getGroups() == null || dto.getGroups().length == 0) {
+      allUsers.remove(null);
+      return CompletableFuture.completedFuture(List.copyOf(allUsers));
+    }
+    List<String> groupNames = Arrays.stream(dto.getGroups()).distinct().toList();
+    return userServiceClient.getUsersInGroupsAsync(groupNames).thenApply(members -> {
+      groupNames.forEach(groupName ->
+          allUsers.addAll(members.getOrDefault(groupName, List.of())));
+      allUsers.remove(null);
+      return List.copyOf(allUsers);
+    });
+  }
+
+  /**
+   * Builds one unsaved notification per recipient from a creation request.
+   *
+   * @param dto        the creation request
+   * @param recipients recipient user IDs
+   * @return notifications ready to be persisted
+   */
+  public List<Notification> buildNotifications(
+      final NotificationCreationDto dto, final List<String> recipients) {
+    Instant receivedTimestamp = Instant.now();
+    return recipients.stream()
+        .<Notification>map(user -> Notification.builder()
+            .userId(user)
+            .message(dto.getMessage())
+            .title(dto.getTitle())
+            .priority(dto.isPriority())
+            .shortDescription(dto.getShortDescription())
+            .notifyType(dto.getNotifyType())
+            .receivedAt(receivedTimestamp)
+            .notificationType(dto.getNotificationType())
+            .build())
+        .toList();
+  }
+
   /**
    * Initializes dummy data on application startup.
    */
@@ -176,25 +326,102 @@ public class NotificationService {
   }
 
   /**
-   * Retrieves all notifications for a specific user.
+   * Retrieves one page of a user's inbox, newest first, using keyset
+   * pagination on (receivedAt, id).
    *
-   * @param userId the user ID
-   * @return list of notifications
+   * @param userId     the user ID
+   * @param cursor     cursor returned with the previous page, null for the first page
+   * @param size       requested page size, null for the default
+   * @param unreadOnly whether to return unread notifications only
+   * @param since      only return notifications received at or after this instant
+   * @return the page and the cursor of the next one
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  @Transactional(readOnly = true)
+  public NotificationPageDto getNotificationsForUser(final String userId,
+                                                     final String cursor,
+                                                     final Integer size,
+                                                     final boolean unreadOnly,
+                                                     final Instant since) {
+    int pageSize = Math.min(
+        size == null || size < 1 ? repositoryConfig.getDefaultPageSize() : size,
+        repositoryConfig.getMaxPageSize());
+    Pageable pageable = PageRequest.of(0, pageSize);
+    Instant from = since == null ? Instant.EPOCH : since;
+
+    Slice<Notification> slice;
+    if (cursor == null || cursor.isBlank()) {
+      slice = unreadOnly
+          ? notificationRepository.findUnreadInboxPage(userId, from, pageable)
+          : notificationRepository.findInboxPage(userId, from, pageable);
+    }
+    else {
+      InboxCursor position = InboxCursor.decode(cursor);
+      slice = unreadOnly
+          ? notificationRepository.findUnreadInboxPageAfter(
+              userId, from, position.receivedAt(), position.id(), pageable)
+          : notificationRepository.findInboxPageAfter(
+              userId, from, position.receivedAt(), position.id(), pageable);
+    }
+
+    List<Notification> items = slice.getContent();
+    String nextCursor = slice.hasNext() && !items.isEmpty()
+        ? InboxCursor.of(items.get(items.size() - 1)).encode()
+        : null;
+    return new NotificationPageDto(items, nextCursor);
+  }
+
+  /**
+   * Opaque keyset position in an inbox.
    */
-  public List<Notification> getNotificationsForUser(final String userId) {
-    return notificationRepository.findByUserId(userId);
+  private record InboxCursor(Instant receivedAt, String id) {
+    private static final String SEPARATOR = "|";
+
+    static InboxCursor of(Notification n) {
+      return new InboxCursor(n.getReceivedAt(), n.getId());
+    }
+
+    static InboxCursor decode(String cursor) {
+      try {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        return new InboxCursor(
+            Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+      }
+      catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+      }
+    }
+
+    String encode() {
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString((receivedAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
   }
 
-  private void sendEmailInline(
+  /**
+   * Sends the mail for a notification to an already resolved address.
+   * Used by the email outbox dispatcher.
+   *
+   * @param notification          the notification to mail
+   * @param email                 the recipient address, null if unknown
+   * @param emailTemplateOptional optional template used for mail delivery
+   * @param variablesOptional     optional template variables
+   * @throws IllegalStateException    if no address is known or sending fails
+   * @throws IllegalArgumentException if the mail server permanently rejected
+   *                                  the address
+   */
+  void deliverEmail(
       Notification notification,
+      String email,
       Optional<EmailTemplate> emailTemplateOptional,
       Optional<Map<String, Object>> variablesOptional) {
 
-    String email = fetchUserEmail(notification.getUserId())
-        .filter(s -> !s.isBlank())
-        .orElseThrow(() ->
-            new IllegalStateException("No email found for userId=" + notification.getUserId()));
+    if (email == null || email.isBlank()) {
+      throw new IllegalStateException("No email found for userId=" + notification.getUserId());
+    }
 
+    Timer.Sample sample = deliveryMetrics.start();
     EmailTemplate chosenTemplate = emailTemplateOptional.orElseGet(() ->
         resolveTemplate(notification));
 
@@ -217,110 +444,81 @@ public class NotificationService {
         .text(java.util.Optional.ofNullable(notification.getMessage()).orElse(""))
         .template(chosenTemplate)
         .variables(vars)
+        .priority(notification.isPriority())
         .build();
 
-    try {
-      emailService.sendEmail(req);
-      log.info("Sent email for notification {}", notification.getId());
-    }
-    catch (Exception e) {
-      throw new IllegalStateException("Failed to send email for " + notification.getId(), e);
-    }
-  }
-
-  private Optional<String> fetchUserEmail(String userId) {
-    try {
-      String token = getToken.getToken();
-
-      record PersonDetailsDto(
-          String id,
-          String dateOfBirth,
-          String address,
-          String phoneNumber,
-          String photoUrl,
-          String username,
-          String firstName,
-          String lastName,
-          String email
-      ) {
-      }
-
-      PersonDetailsDto resp = userClient.get()
-          .uri("/users/{id}", userId)
-          .header("Authorization", "Bearer " + token)
-          .retrieve()
-          .bodyToMono(PersonDetailsDto.class)
-          .timeout(Duration.ofMillis(userServiceConfig.getTimeoutMs()))
-          .block();
-      return Optional.ofNullable(resp != null ? resp.email() : null);
-    }
-    catch (Exception e) {
-      log.warn("UserService lookup failed for {}: {}", userId, e.toString());
-      return Optional.empty();
-    }
-  }
-
-  private boolean shouldSendMail(Notification n) {
-    return Objects.equals(n.getNotifyType(), NotifyType.Mail)
-        || Objects.equals(n.getNotifyType(), NotifyType.All);
+    sendOutboxEmail(req, "notification " + notification.getId(),
+        sample, "notification.email", DeliveryMetrics.tags(notification));
+    log.info("Sent email for notification {}", notification.getId());
   }
 
   /**
-   * Fetches user IDs from a group via the user service API.
-   * Calls: GET {user-service.url}/api/v1/group/{groupName}
-   * Requires JWT authentication.
+   * Sends one digest email listing the given notifications, oldest first.
+   * Used by the email outbox dispatcher for buffered notifications.
    *
-   * @param groupName the group name (e.g., cohort name)
-   * @return list of user UUIDs in the group
-   * @throws IllegalStateException if group notifications are disabled
-   * @throws RuntimeException      if the group service request fails
+   * @param userId        ID of the recipient
+   * @param email         the recipient address, null if unknown
+   * @param notifications the buffered notifications
+   * @throws IllegalStateException    if no address is known or sending fails
+   * @throws IllegalArgumentException if the mail server permanently rejected
+   *                                  the address
    */
-  public List<String> getUsersInGroup(final String groupName) {
-    if (!userServiceConfig.isGroupsEnabled()) {
-      throw new IllegalStateException(
-          "Group notifications are disabled. Group name: " + groupName);
+  void deliverDigest(String userId, String email, List<Notification> notifications) {
+    if (email == null || email.isBlank()) {
+      throw new IllegalStateException("No email found for userId=" + userId);
     }
 
-    try {
-      // Get JWT token for authentication
-      String token = getToken.getToken();
-
-      record StudentDto(String uuid) {
-      }
-      record GroupDto(String name, Integer students_count, java.util.List<StudentDto> students) {
-      }
+    Timer.Sample sample = deliveryMetrics.start();
+    String subject = notifications.size() == 1
+        ? "1 neue Benachrichtigung"
+        : notifications.size() + " neue Benachrichtigungen";
+    EmailNotificationRequestDto req = EmailNotificationRequestDto.builder()
+        .to(List.of(email))
+        .subject(subject)
+        .template(EmailTemplate.DIGEST)
+        .variables(buildDigestVariables(subject, notifications))
+        .priority(false)
+        .build();
 
-      GroupDto groupDto = userClient.get()
-          .uri("/api/v1/group/{groupName}", groupName)
-          .header("Authorization", "Bearer " + token)
-          .retrieve()
-          .bodyToMono(GroupDto.class)
-          .timeout(Duration.ofMillis(userServiceConfig.getTimeoutMs()))
-          .block();
-
-      if (groupDto == null || groupDto.students() == null) {
-        log.warn("Group '{}' not found or has no students", groupName);
-        return java.util.Collections.emptyList();
-      }
+    sendOutboxEmail(req, "digest of " + userId, sample, "notification.email.digest", Tags.empty());
+    deliveryMetrics.summary("notification.email.digest.size", Tags.empty())
+        .record(notifications.size());
+    log.info("Sent digest of {} notifications to user {}", notifications.size(), userId);
+  }
 
-      return groupDto.students().stream()
-          .map(StudentDto::uuid)
-          .filter(java.util.Objects::nonNull)
-          .toList();
+  private void sendOutboxEmail(EmailNotificationRequestDto req, String description,
+                               Timer.Sample sample, String timerName, Tags tags) {
+    EmailDeliveryResultDto delivery;
+    try {
+      // a single attempt, the outbox schedules retries itself
+      delivery = emailService.sendEmail(req, 1).recipients().get(0);
     }
     catch (Exception e) {
-      log.error("Error fetching users for group '{}': {}", groupName, e.getMessage());
-      throw new RuntimeException(
-          "Failed to fetch users for group " + groupName + ": " + e.getMessage(),
-          e);
+      sample.stop(deliveryMetrics.timer(timerName,
+          tags.and("status", DeliveryStatus.Failed.name())));
+      throw new IllegalStateException("Failed to send email for " + description, e);
+    }
+    sample.stop(deliveryMetrics.timer(timerName, tags.and("status", delivery.status().name())));
+    if (delivery.status() == DeliveryStatus.Rejected) {
+      throw new IllegalArgumentException("Recipient rejected for " + description
+          + ": " + delivery.error());
     }
+    if (delivery.status() != DeliveryStatus.Sent) {
+      throw new IllegalStateException("Failed to send email for " + description
+          + ": " + delivery.error());
+    }
+  }
+
+  private boolean shouldSendMail(Notification n) {
+    return Objects.equals(n.getNotifyType(), NotifyType.Mail)
+        || Objects.equals(n.getNotifyType(), NotifyType.All);
   }
 
   private EmailTemplate resolveTemplate(Notification n) {
     return EmailTemplate.GENERIC;
   }
 
-  private Map<String, Object> buildDefaultVariables(Notification n) {
+  static Map<String, Object> buildDefaultVariables(Notification n) {
     Map<String, Object> vars = new java.util.HashMap<>();
 
     String fallbackHeader = java.util.Optional.ofNullable(n.getTitle()).orElseGet(() -> {
@@ -356,4 +554,32 @@ public class NotificationService {
 
     return vars;
   }
+
+  static Map<String, Object> buildDigestVariables(
+      String subject, List<Notification> notifications) {
+    Map<String, Object> vars = new HashMap<>();
+    vars.put("header", "Deine Benachrichtigungen");
+    vars.put("preheader", subject);
+    vars.put("intro", "seit der letzten Zusammenfassung sind folgende Benachrichtigungen "
+        + "für dich eingegangen:");
+
+    List<Map<String, Object>> items = notifications.stream()
+        .sorted(Comparator.comparing(Notification::getReceivedAt,
+            Comparator.nullsLast(Comparator.naturalOrder())))
+        .<Map<String, Object>>map(n -> {
+          Map<String, Object> item = new HashMap<>();
+          item.put("title", Optional.ofNullable(n.getTitle()).orElse("Benachrichtigung"));
+          String text = n.getShortDescription() != null && !n.getShortDescription().isBlank()
+              ? n.getShortDescription() : n.getMessage();
+          item.put("text", text);
+          if (n.getReceivedAt() != null) {
+            item.put("receivedAt", DIGEST_TIME_FORMAT.format(n.getReceivedAt()));
+          }
+          return item;
+        })
+        .toList();
+    vars.put("items", items);
+    vars.put("footer", "SAU (Student Assistance Utilities)");
+    return vars;
+  }
 }
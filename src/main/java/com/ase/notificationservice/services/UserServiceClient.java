@@ -0,0 +1,367 @@
+package com.ase.notificationservice.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import com.ase.notificationservice.components.CircuitBreaker;
+import com.ase.notificationservice.components.GetToken;
+import com.ase.notificationservice.config.UserServiceConfig;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.channel.ChannelOption;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Client for the user service, resolving group members and user email
+ * addresses. Results are kept in bounded in-memory caches whose hit, miss
+ * and eviction counts are published as {@code cache.*} metrics.
+ * All lookups are non-blocking; the {@code *Async} methods return futures,
+ * the plain methods wait for them and are meant for background threads.
+ * Requests share a bounded connection pool and go through a circuit breaker
+ * so that a slow or failing user service is not called over and over.
+ */
+@Service
+@Slf4j
+@EnableConfigurationProperties(UserServiceConfig.class)
+@RequiredArgsConstructor
+public class UserServiceClient {
+
+  private final UserServiceConfig userServiceConfig;
+  private final GetToken getToken;
+  private final MeterRegistry meterRegistry;
+  private ConnectionProvider connectionProvider;
+  private WebClient userClient;
+  private CircuitBreaker circuitBreaker;
+  private AsyncLoadingCache<String, String> emailCache;
+  private AsyncLoadingCache<String, List<String>> groupCache;
+
+  record PersonDetailsDto(
+      String id,
+      String dateOfBirth,
+      String address,
+      String phoneNumber,
+      String photoUrl,
+      String username,
+      String firstName,
+      String lastName,
+      String email
+  ) {
+  }
+
+  record StudentDto(String uuid) {
+  }
+
+  record GroupDto(String name, Integer students_count, List<StudentDto> students) {
+  }
+
+  @jakarta.annotation.PostConstruct
+  void init() {
+    connectionProvider = ConnectionProvider.builder("user-service")
+        .maxConnections(userServiceConfig.getMaxConnections())
+        .pendingAcquireMaxCount(userServiceConfig.getPendingAcquireMaxCount())
+        .pendingAcquireTimeout(Duration.ofMillis(userServiceConfig.getTimeoutMs()))
+        .maxIdleTime(Duration.ofMillis(userServiceConfig.getMaxIdleTimeMs()))
+        .evictInBackground(Duration.ofMillis(userServiceConfig.getMaxIdleTimeMs()))
+        .build();
+    HttpClient httpClient = HttpClient.create(connectionProvider)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, userServiceConfig.getConnectTimeoutMs())
+        .responseTimeout(Duration.ofMillis(userServiceConfig.getTimeoutMs()));
+    userClient = WebClient.builder()
+        .baseUrl(userServiceConfig.getUrl())
+        .clientConnector(new ReactorClientHttpConnector(httpClient))
+        .build();
+
+    // 4xx answers mean the service is up, only count errors and timeouts
+    circuitBreaker = new CircuitBreaker("user-service",
+        userServiceConfig.getCircuitFailureThreshold(),
+        Duration.ofMillis(userServiceConfig.getCircuitOpenMs()),
+        e -> !(e instanceof WebClientResponseException response)
+            || response.getStatusCode().is5xxServerError());
+    Gauge.builder("user.service.circuit.open", circuitBreaker, cb -> cb.isOpen() ? 1 : 0)
+        .description("Whether calls to the user service are currently stopped")
+        .register(meterRegistry);
+
+    emailCache = cacheBuilder().buildAsync(new AsyncCacheLoader<String, String>() {
+      @Override
+      public CompletableFuture<String> asyncLoad(String userId, Executor executor) {
+        return fetchEmails(List.of(userId), true)
+            .mapNotNull(emails -> emails.get(userId))
+            .toFuture();
+      }
+
+      @Override
+      public CompletableFuture<Map<String, String>> asyncLoadAll(
+          Set<? extends String> userIds, Executor executor) {
+        return fetchEmails(userIds, true).toFuture();
+      }
+
+      // A failed refresh fails the future, so the cache keeps serving the
+      // old address until it expires; only a user without an address drops it.
+      @Override
+      public CompletableFuture<String> asyncReload(
+          String userId, String oldEmail, Executor executor) {
+        return fetchEmails(List.of(userId), false)
+            .mapNotNull(emails -> emails.get(userId))
+            .toFuture();
+      }
+    });
+    groupCache = cacheBuilder().buildAsync(new AsyncCacheLoader<String, List<String>>() {
+      @Override
+      public CompletableFuture<List<String>> asyncLoad(String groupName, Executor executor) {
+        return fetchGroupMembers(List.of(groupName))
+            .mapNotNull(members -> members.get(groupName))
+            .toFuture();
+      }
+
+      @Override
+      public CompletableFuture<Map<String, List<String>>> asyncLoadAll(
+          Set<? extends String> groupNames, Executor executor) {
+        return fetchGroupMembers(groupNames).toFuture();
+      }
+    });
+
+    CaffeineCacheMetrics.monitor(meterRegistry, emailCache, "userEmails");
+    CaffeineCacheMetrics.monitor(meterRegistry, groupCache, "groupMembers");
+  }
+
+  @jakarta.annotation.PreDestroy
+  void close() {
+    connectionProvider.dispose();
+  }
+
+  private Caffeine<Object, Object> cacheBuilder() {
+    return Caffeine.newBuilder()
+        .maximumSize(userServiceConfig.getCacheMaxSize())
+        .expireAfterWrite(Duration.ofMillis(userServiceConfig.getCacheTtlMs()))
+        .refreshAfterWrite(Duration.ofMillis(userServiceConfig.getCacheRefreshMs()))
+        .recordStats();
+  }
+
+  /**
+   * Fetches the email address of a single user.
+   *
+   * @param userId the user ID
+   * @return the email address, empty if the user is unknown or the lookup failed
+   */
+  public Optional<String> fetchUserEmail(final String userId) {
+    return Optional.ofNullable(resolveEmails(List.of(userId)).get(userId));
+  }
+
+  /**
+   * Blocking variant of {@link #resolveEmailsAsync(Collection)}.
+   *
+   * @param userIds the user IDs
+   * @return map of user ID to email address
+   */
+  public Map<String, String> resolveEmails(final Collection<String> userIds) {
+    return await(resolveEmailsAsync(userIds));
+  }
+
+  /**
+   * Resolves the email addresses of many users at once. Cached addresses are
+   * served directly (stale ones are refreshed in the background and kept if
+   * the refresh fails); the remaining users are fetched in one go. Users
+   * whose lookup fails or who have no address are missing from the result
+   * and are not cached.
+   *
+   * @param userIds the user IDs
+   * @return future map of user ID to email address
+   */
+  public CompletableFuture<Map<String, String>> resolveEmailsAsync(
+      final Collection<String> userIds) {
+    List<String> distinct = userIds.stream().filter(Objects::nonNull).distinct().toList();
+    if (distinct.isEmpty()) {
+      return CompletableFuture.completedFuture(Map.of());
+    }
+    return emailCache.getAll(distinct);
+  }
+
+  /**
+   * Fetches email addresses from the user service, bypassing the cache. Uses
+   * the bulk endpoint if one is configured, otherwise issues the single-user
+   * lookups in parallel, bounded by {@code user-service.lookup-concurrency}.
+   *
+   * @param distinct the user IDs
+   * @param partial  whether failed lookups are left out of the result
+   *                 instead of failing it; unknown users are always left out
+   */
+  private Mono<Map<String, String>> fetchEmails(
+      Collection<? extends String> distinct, boolean partial) {
+    Mono<Map<String, String>> emails = Mono.fromFuture(getToken::getTokenAsync)
+        .flatMapMany(token -> hasBulkLookup()
+            ? Flux.<String>fromIterable(distinct)
+                .buffer(Math.max(1, userServiceConfig.getBulkLookupSize()))
+                .flatMap(chunk -> lookupBulk(chunk, token, partial),
+                    Math.max(1, userServiceConfig.getLookupConcurrency()))
+            : Flux.<String>fromIterable(distinct)
+                .flatMap(id -> lookupSingle(id, token, partial),
+                    Math.max(1, userServiceConfig.getLookupConcurrency())))
+        .filter(p -> p.id() != null && p.email() != null && !p.email().isBlank())
+        .collectMap(PersonDetailsDto::id, PersonDetailsDto::email);
+    if (!partial) {
+      return emails;
+    }
+    return emails.onErrorResume(e -> {
+      log.warn("UserService lookup failed for {} users: {}", distinct.size(), e.toString());
+      return Mono.just(Map.of());
+    });
+  }
+
+  private boolean hasBulkLookup() {
+    return userServiceConfig.getBulkLookupPath() != null
+        && !userServiceConfig.getBulkLookupPath().isBlank();
+  }
+
+  private Mono<PersonDetailsDto> lookupSingle(String userId, String token, boolean partial) {
+    return circuitBreaker.protect(userClient.get()
+            .uri("/users/{id}", userId)
+            .header("Authorization", "Bearer " + token)
+            .retrieve()
+            .bodyToMono(PersonDetailsDto.class)
+            .timeout(Duration.ofMillis(userServiceConfig.getTimeoutMs())))
+        .onErrorResume(e -> {
+          if (e instanceof WebClientResponseException.NotFound) {
+            return Mono.empty();
+          }
+          log.warn("UserService lookup failed for {}: {}", userId, e.toString());
+          return partial ? Mono.empty() : Mono.error(e);
+        });
+  }
+
+  private Flux<PersonDetailsDto> lookupBulk(
+      List<String> userIds, String token, boolean partial) {
+    return circuitBreaker.protect(userClient.post()
+            .uri(userServiceConfig.getBulkLookupPath())
+            .header("Authorization", "Bearer " + token)
+            .bodyValue(userIds)
+            .retrieve()
+            .bodyToFlux(PersonDetailsDto.class)
+            .timeout(Duration.ofMillis(userServiceConfig.getTimeoutMs())))
+        .onErrorResume(e -> {
+          log.warn("UserService bulk lookup failed for {} users: {}",
+              userIds.size(), e.toString());
+          return partial ? Flux.empty() : Flux.error(e);
+        });
+  }
+
+  /**
+   * Fetches user IDs from a group via the user service API.
+   * Calls: GET {user-service.url}/api/v1/group/{groupName}
+   * Requires JWT authentication.
+   *
+   * @param groupName the group name (e.g., cohort name)
+   * @return list of user UUIDs in the group
+   * @throws GroupsDisabledException if group notifications are disabled
+   * @throws UserServiceException    if the group service request fails
+   */
+  public List<String> getUsersInGroup(final String groupName) {
+    return getUsersInGroups(List.of(groupName)).get(groupName);
+  }
+
+  /**
+   * Blocking variant of {@link #getUsersInGroupsAsync(Collection)}.
+   *
+   * @param groupNames the group names
+   * @return map of group name to the user UUIDs in that group
+   * @throws GroupsDisabledException if group notifications are disabled
+   * @throws UserServiceException    if any group service request fails
+   */
+  public Map<String, List<String>> getUsersInGroups(final Collection<String> groupNames) {
+    return await(getUsersInGroupsAsync(groupNames));
+  }
+
+  /**
+   * Fetches the members of several groups. Groups missing from the cache are
+   * requested concurrently, bounded by
+   * {@code user-service.group-lookup-concurrency}.
+   *
+   * @param groupNames the group names
+   * @return future map of group name to the user UUIDs in that group, failing
+   *     with {@link GroupsDisabledException} if group notifications are
+   *     disabled or {@link UserServiceException} if a request fails
+   */
+  public CompletableFuture<Map<String, List<String>>> getUsersInGroupsAsync(
+      final Collection<String> groupNames) {
+    if (!userServiceConfig.isGroupsEnabled()) {
+      return CompletableFuture.failedFuture(new GroupsDisabledException(
+          "Group notifications are disabled. Group names: " + groupNames));
+    }
+    return groupCache.getAll(groupNames);
+  }
+
+  private Mono<Map<String, List<String>>> fetchGroupMembers(
+      Collection<? extends String> groupNames) {
+    return Mono.fromFuture(getToken::getTokenAsync)
+        .onErrorMap(e -> {
+          log.error("Error fetching users for groups {}: {}", groupNames, e.getMessage());
+          return new UserServiceException(
+              "Failed to fetch users for groups " + groupNames + ": " + e.getMessage(), e);
+        })
+        .flatMapMany(token -> Flux.<String>fromIterable(groupNames)
+            .flatMap(groupName -> fetchGroupMembers(groupName, token)
+                    .map(users -> Map.entry(groupName, users)),
+                Math.max(1, userServiceConfig.getGroupLookupConcurrency())))
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+  }
+
+  private Mono<List<String>> fetchGroupMembers(String groupName, String token) {
+    return circuitBreaker.protect(userClient.get()
+            .uri("/api/v1/group/{groupName}", groupName)
+            .header("Authorization", "Bearer " + token)
+            .retrieve()
+            .bodyToMono(GroupDto.class)
+            .timeout(Duration.ofMillis(userServiceConfig.getTimeoutMs())))
+        .map(groupDto -> groupDto.students() == null
+            ? List.<String>of()
+            : groupDto.students().stream()
+                .map(StudentDto::uuid)
+                .filter(Objects::nonNull)
+                .toList())
+        .switchIfEmpty(Mono.fromCallable(() -> {
+          log.warn("Group '{}' not found or has no students", groupName);
+          return List.<String>of();
+        }))
+        .onErrorMap(e -> {
+          log.error("Error fetching users for group '{}': {}", groupName, e.getMessage());
+          return new UserServiceException(
+              "Failed to fetch users for group " + groupName + ": " + e.getMessage(),
+              e);
+        });
+  }
+
+  /**
+   * Waits for a lookup, rethrowing its failure unwrapped.
+   */
+  static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    }
+    catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
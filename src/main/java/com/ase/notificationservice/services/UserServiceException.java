@@ -0,0 +1,12 @@
+package com.ase.notificationservice.services;
+
+/**
+ * Thrown when the user service cannot be reached or answers with an error.
+ */
+public class UserServiceException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public UserServiceException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,14 @@
+-- Schema previously created by hibernate ddl-auto. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate).
+CREATE TABLE IF NOT EXISTS notification (
+    id                varchar(255) NOT NULL PRIMARY KEY,
+    user_id           varchar(255),
+    message           varchar(255),
+    read_at           timestamp(6) with time zone,
+    priority          boolean      NOT NULL,
+    received_at       timestamp(6) with time zone,
+    title             varchar(255),
+    short_description varchar(255),
+    notify_type       smallint,
+    notification_type varchar(255)
+);
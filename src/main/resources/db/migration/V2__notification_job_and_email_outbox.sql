@@ -0,0 +1,26 @@
+CREATE TABLE IF NOT EXISTS notification_job (
+    id            varchar(255) NOT NULL PRIMARY KEY,
+    status        varchar(255),
+    resolved      integer      NOT NULL,
+    persisted     integer      NOT NULL,
+    pushed        integer      NOT NULL,
+    mailed        integer      NOT NULL,
+    failed        integer      NOT NULL,
+    error_message varchar(255),
+    created_at    timestamp(6) with time zone,
+    finished_at   timestamp(6) with time zone
+);
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              varchar(255)  NOT NULL PRIMARY KEY,
+    notification_id varchar(255)  NOT NULL,
+    job_id          varchar(255),
+    template        varchar(255),
+    variables       text,
+    status          varchar(255)  NOT NULL,
+    attempts        integer       NOT NULL,
+    next_attempt_at timestamp(6) with time zone,
+    last_error      varchar(1000),
+    created_at      timestamp(6) with time zone,
+    sent_at         timestamp(6) with time zone
+);
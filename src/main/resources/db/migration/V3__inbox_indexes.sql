@@ -0,0 +1,13 @@
+-- Inbox reads: WHERE user_id = ? ORDER BY received_at DESC
+CREATE INDEX IF NOT EXISTS idx_notification_user_received
+    ON notification (user_id, received_at DESC);
+
+-- Unread counters and unread-only inbox reads
+CREATE INDEX IF NOT EXISTS idx_notification_user_unread
+    ON notification (user_id, received_at DESC)
+    WHERE read_at IS NULL;
+
+-- Outbox dispatcher: due pending entries
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due
+    ON email_outbox (next_attempt_at)
+    WHERE status = 'Pending';
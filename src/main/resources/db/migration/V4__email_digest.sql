@@ -0,0 +1,14 @@
+-- Per-user digest window; users without a row get every email right away
+CREATE TABLE IF NOT EXISTS digest_preference (
+    user_id        varchar(255) NOT NULL PRIMARY KEY,
+    window_minutes integer      NOT NULL,
+    updated_at     timestamp(6) with time zone
+);
+
+-- Buffered outbox entries are flushed per user at the end of the window
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS user_id varchar(255);
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS digest boolean NOT NULL DEFAULT false;
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_digest
+    ON email_outbox (user_id, next_attempt_at)
+    WHERE status = 'Pending' AND digest;
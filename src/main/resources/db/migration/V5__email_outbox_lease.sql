@@ -0,0 +1,10 @@
+-- Claimed outbox entries are 'Sending' until their lease (next_attempt_at) runs out
+DROP INDEX IF EXISTS idx_email_outbox_due;
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due
+    ON email_outbox (next_attempt_at)
+    WHERE status IN ('Pending', 'Sending');
+
+DROP INDEX IF EXISTS idx_email_outbox_digest;
+CREATE INDEX IF NOT EXISTS idx_email_outbox_digest
+    ON email_outbox (user_id, next_attempt_at)
+    WHERE status IN ('Pending', 'Sending') AND digest;
@@ -0,0 +1,127 @@
+package com.ase.notificationservice.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the state transitions of {@link CircuitBreaker}, driven by a
+ * fake clock.
+ */
+class CircuitBreakerTest {
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger calls = new AtomicInteger();
+  private CircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    circuitBreaker = new CircuitBreaker("users", 2, OPEN_DURATION,
+        error -> error instanceof UncheckedIOException, now::get);
+  }
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    fail();
+    assertThat(circuitBreaker.isOpen()).isFalse();
+    fail();
+
+    assertThat(circuitBreaker.isOpen()).isTrue();
+    assertThatThrownBy(this::succeed)
+        .isInstanceOf(CircuitBreaker.CallNotPermittedException.class);
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  void successResetsTheFailureCount() {
+    fail();
+    succeed();
+    fail();
+
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  @Test
+  void errorsNotRecordedAsFailuresKeepTheCircuitClosed() {
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> call(Mono.error(new IllegalArgumentException("not found"))))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  @Test
+  void halfOpenLetsASingleTrialThrough() {
+    open();
+    now.addAndGet(OPEN_DURATION.toNanos());
+
+    Disposable trial = circuitBreaker.protect(Mono.never()).subscribe();
+    assertThatThrownBy(this::succeed)
+        .isInstanceOf(CircuitBreaker.CallNotPermittedException.class);
+
+    trial.dispose();
+    succeed();
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  @Test
+  void successfulTrialClosesTheCircuit() {
+    open();
+    now.addAndGet(OPEN_DURATION.toNanos());
+
+    succeed();
+
+    assertThat(circuitBreaker.isOpen()).isFalse();
+    succeed();
+    fail();
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  @Test
+  void failedTrialKeepsTheCircuitOpenForAnotherPeriod() {
+    open();
+    now.addAndGet(OPEN_DURATION.toNanos());
+
+    fail();
+
+    assertThat(circuitBreaker.isOpen()).isTrue();
+    now.addAndGet(OPEN_DURATION.toNanos() - 1);
+    assertThatThrownBy(this::succeed)
+        .isInstanceOf(CircuitBreaker.CallNotPermittedException.class);
+    now.addAndGet(1);
+    succeed();
+    assertThat(circuitBreaker.isOpen()).isFalse();
+  }
+
+  private void open() {
+    fail();
+    fail();
+    assertThat(circuitBreaker.isOpen()).isTrue();
+  }
+
+  private void succeed() {
+    call(Mono.just("ok"));
+  }
+
+  private void fail() {
+    assertThatThrownBy(() -> call(Mono.error(new UncheckedIOException(new IOException("down")))))
+        .isInstanceOf(UncheckedIOException.class);
+  }
+
+  private void call(Mono<String> result) {
+    circuitBreaker.protect(Mono.defer(() -> {
+      calls.incrementAndGet();
+      return result;
+    })).block();
+  }
+}
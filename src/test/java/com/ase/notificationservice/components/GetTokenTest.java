@@ -0,0 +1,100 @@
+package com.ase.notificationservice.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests that a token endpoint which never answers fails the waiting callers
+ * instead of blocking them, and that the next call asks Keycloak again.
+ */
+class GetTokenTest {
+  private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(300);
+  private static final long WAIT_SECONDS = 5;
+  private static final String TOKEN_RESPONSE =
+      "{\"access_token\":\"token-1\",\"expires_in\":300}";
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private ExecutorService handlers;
+  private HttpServer keycloak;
+  private GetToken getToken;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    handlers = Executors.newCachedThreadPool();
+    keycloak = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    keycloak.setExecutor(handlers);
+    // the first request hangs until the test ends, later ones get a token
+    keycloak.createContext("/token", exchange -> {
+      if (requests.incrementAndGet() == 1) {
+        awaitRelease();
+      }
+      respond(exchange);
+    });
+    keycloak.start();
+
+    getToken = new GetToken(new SimpleMeterRegistry(), REQUEST_TIMEOUT);
+    getToken.tokenUrl = "http://127.0.0.1:" + keycloak.getAddress().getPort() + "/token";
+    getToken.clientId = "client";
+    getToken.clientSecret = "secret";
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    keycloak.stop(0);
+    handlers.shutdownNow();
+  }
+
+  @Test
+  void hangingTokenEndpointFailsCallersAndNextCallRetries() throws Exception {
+    CompletableFuture<String> first = getToken.getTokenAsync();
+    CompletableFuture<String> second = getToken.getTokenAsync();
+
+    assertThatThrownBy(() -> first.get(WAIT_SECONDS, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class);
+    assertThatThrownBy(() -> second.get(WAIT_SECONDS, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class);
+    assertThat(requests.get()).isEqualTo(1);
+
+    assertThat(getToken.getTokenAsync().get(WAIT_SECONDS, TimeUnit.SECONDS))
+        .isEqualTo("token-1");
+    assertThat(requests.get()).isEqualTo(2);
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void respond(HttpExchange exchange) throws IOException {
+    byte[] body = TOKEN_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+}
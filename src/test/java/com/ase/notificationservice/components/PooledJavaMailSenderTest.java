@@ -0,0 +1,138 @@
+package com.ase.notificationservice.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import com.ase.notificationservice.config.MailRateLimitConfig;
+import com.ase.notificationservice.config.SmtpPoolConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the connection handling of {@link PooledJavaMailSender},
+ * with mocked transports and a fake clock.
+ */
+class PooledJavaMailSenderTest {
+  private static final long IDLE_TIMEOUT_MS = 1000;
+
+  private final List<Transport> transports = new ArrayList<>();
+  private final AtomicLong now = new AtomicLong();
+  private PooledJavaMailSender sender;
+
+  @BeforeEach
+  void setUp() {
+    SmtpPoolConfig poolConfig = new SmtpPoolConfig();
+    poolConfig.setSize(1);
+    poolConfig.setIdleTimeoutMs(IDLE_TIMEOUT_MS);
+    poolConfig.setMaxMessagesPerConnection(2);
+    poolConfig.setBorrowTimeoutMs(100);
+    MailRateLimitConfig rateLimitConfig = new MailRateLimitConfig();
+    rateLimitConfig.setMessagesPerSecond(0);
+
+    sender = new PooledJavaMailSender(poolConfig,
+        new SmtpRateLimiter(rateLimitConfig, new SimpleMeterRegistry()), now::get) {
+      @Override
+      protected Transport connectTransport() {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        transports.add(transport);
+        return transport;
+      }
+    };
+  }
+
+  @Test
+  void batchIsSentOverOneConnection() throws MessagingException {
+    sender.send(message(), message());
+
+    assertThat(transports).hasSize(1);
+    verify(transports.get(0), times(2)).sendMessage(any(), any());
+  }
+
+  @Test
+  void connectionIsReplacedAfterMaxMessages() throws MessagingException {
+    sender.send(message(), message(), message());
+
+    assertThat(transports).hasSize(2);
+    verify(transports.get(0)).close();
+  }
+
+  @Test
+  void idleConnectionIsEvicted() throws MessagingException {
+    sender.send(message());
+    now.addAndGet(IDLE_TIMEOUT_MS);
+
+    sender.evictIdle();
+    sender.send(message());
+
+    verify(transports.get(0)).close();
+    assertThat(transports).hasSize(2);
+  }
+
+  @Test
+  void brokenConnectionIsDiscarded() throws MessagingException {
+    sender.send(message());
+    Transport broken = transports.get(0);
+    doAnswer(invocation -> {
+      when(broken.isConnected()).thenReturn(false);
+      throw new MessagingException("connection reset");
+    }).when(broken).sendMessage(any(), any());
+
+    assertThatThrownBy(() -> sender.send(message())).isInstanceOf(MailSendException.class);
+    sender.send(message());
+
+    verify(broken).close();
+    assertThat(transports).hasSize(2);
+  }
+
+  @Test
+  void sendFailsWhenNoConnectionIsFreedInTime() throws Exception {
+    sender.send(message());
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      sending.countDown();
+      release.await();
+      return null;
+    }).when(transports.get(0)).sendMessage(any(), any());
+    MimeMessage slow = message();
+    Thread holder = new Thread(() -> sender.send(slow));
+    holder.start();
+    assertThat(sending.await(1, TimeUnit.SECONDS)).isTrue();
+
+    try {
+      assertThatThrownBy(() -> sender.send(message()))
+          .isInstanceOf(MailSendException.class)
+          .hasMessageContaining("No SMTP connection available");
+    }
+    finally {
+      release.countDown();
+      holder.join();
+    }
+  }
+
+  private static MimeMessage message() throws MessagingException {
+    MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+    message.setRecipients(Message.RecipientType.TO, "user@example.com");
+    message.setText("Hello");
+    return message;
+  }
+}
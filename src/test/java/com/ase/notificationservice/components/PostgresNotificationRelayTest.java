@@ -0,0 +1,169 @@
+package com.ase.notificationservice.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.ase.notificationservice.components.PostgresNotificationRelay.Envelope;
+import com.ase.notificationservice.config.RelayConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests how {@link PostgresNotificationRelay} packs pushes into NOTIFY
+ * payloads and hands received payloads to the local broker.
+ */
+class PostgresNotificationRelayTest {
+  private static final String DESTINATION = "/queue/notifications";
+  private static final int MAX_PAYLOAD_BYTES = 7900;
+  private static final int FAN_OUT = 200;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<Message<?>> delivered = new ArrayList<>();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private JdbcTemplate jdbcTemplate;
+  private PostgresNotificationRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+      delivered.add(message);
+      return true;
+    });
+    jdbcTemplate = mock(JdbcTemplate.class);
+    relay = new PostgresNotificationRelay(messagingTemplate, jdbcTemplate, null,
+        objectMapper, new RelayConfig(), meterRegistry);
+  }
+
+  @Test
+  void smallFanOutFitsIntoOneEnvelope() throws Exception {
+    List<String> batches = relay.pack(DESTINATION, payloads(3, 10));
+
+    assertThat(batches).hasSize(1);
+    Envelope envelope = objectMapper.readValue(batches.get(0), Envelope.class);
+    assertThat(envelope.destination()).isEqualTo(DESTINATION);
+    assertThat(envelope.messages()).hasSize(3);
+    assertThat(envelope.messages().get(0).user()).isEqualTo("user-0");
+  }
+
+  @Test
+  void largeFanOutIsSplitBelowTheNotifyLimit() throws Exception {
+    List<String> batches = relay.pack(DESTINATION, payloads(FAN_OUT, 200));
+
+    assertThat(batches.size()).isGreaterThan(1);
+    List<String> users = new ArrayList<>();
+    for (String batch : batches) {
+      assertThat(batch.getBytes(StandardCharsets.UTF_8).length)
+          .isLessThan(MAX_PAYLOAD_BYTES);
+      objectMapper.readValue(batch, Envelope.class).messages()
+          .forEach(message -> users.add(message.user()));
+    }
+    assertThat(new HashSet<>(users)).hasSize(FAN_OUT);
+  }
+
+  @Test
+  void oversizedMessageIsOnlyDeliveredLocally() throws Exception {
+    Map<String, Object> payloads = new LinkedHashMap<>();
+    payloads.put("user-big", Map.of("text", "x".repeat(2 * MAX_PAYLOAD_BYTES)));
+    payloads.put("user-small", Map.of("text", "hello"));
+
+    List<String> batches = relay.pack(DESTINATION, payloads);
+
+    assertThat(batches).hasSize(1);
+    List<PostgresNotificationRelay.Message> messages =
+        objectMapper.readValue(batches.get(0), Envelope.class).messages();
+    assertThat(messages).hasSize(1);
+    assertThat(messages.get(0).user()).isEqualTo("user-small");
+    assertThat(meterRegistry.get("notification.relay.oversize").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void publishDeliversLocallyAndNotifiesAllEnvelopesInOneStatement() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    Array array = mock(Array.class);
+    List<Object[]> notified = new ArrayList<>();
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(connection.createArrayOf(eq("text"), any())).thenAnswer(invocation -> {
+      notified.add(invocation.getArgument(1));
+      return array;
+    });
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(
+        invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+    relay.publishToUsers(DESTINATION, payloads(FAN_OUT, 200));
+
+    assertThat(delivered).hasSize(FAN_OUT);
+    verify(connection).prepareStatement(anyString());
+    verify(statement).setArray(2, array);
+    verify(statement).execute();
+    assertThat(notified).hasSize(1);
+    assertThat(notified.get(0).length).isGreaterThan(1);
+  }
+
+  @Test
+  void receivedEnvelopeIsDeliveredToEveryUser() throws Exception {
+    Envelope envelope = new Envelope("other-node", System.currentTimeMillis(), DESTINATION,
+        List.of(message("user-1", "first"), message("user-2", "second")));
+
+    relay.deliver(objectMapper.writeValueAsString(envelope));
+
+    assertThat(delivered).hasSize(2);
+    assertThat(SimpMessageHeaderAccessor.getDestination(delivered.get(0).getHeaders()))
+        .isEqualTo("/user/user-1" + DESTINATION);
+    assertThat(delivered.get(1).getPayload())
+        .isEqualTo(objectMapper.valueToTree(Map.of("text", "second")));
+    assertThat(meterRegistry.get("notification.relay.received").counter().count())
+        .isEqualTo(2.0);
+  }
+
+  @Test
+  void ownEnvelopeIsNotDeliveredAgain() throws Exception {
+    List<String> batches = relay.pack(DESTINATION, payloads(3, 10));
+
+    relay.deliver(batches.get(0));
+
+    assertThat(delivered).isEmpty();
+  }
+
+  @Test
+  void unreadablePayloadIsDropped() {
+    relay.deliver("not an envelope");
+
+    assertThat(delivered).isEmpty();
+  }
+
+  private PostgresNotificationRelay.Message message(String user, String text) {
+    JsonNode payload = objectMapper.valueToTree(Map.of("text", text));
+    return new PostgresNotificationRelay.Message(user, payload);
+  }
+
+  private static Map<String, Object> payloads(int users, int textLength) {
+    Map<String, Object> payloads = new LinkedHashMap<>();
+    for (int i = 0; i < users; i++) {
+      payloads.put("user-" + i, Map.of("text", "x".repeat(textLength)));
+    }
+    return payloads;
+  }
+}
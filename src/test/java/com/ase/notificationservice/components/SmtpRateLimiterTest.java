@@ -0,0 +1,129 @@
+package com.ase.notificationservice.components;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import com.ase.notificationservice.config.MailRateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link SmtpRateLimiter}, driven by a fake clock. Waiting
+ * senders run on their own threads.
+ */
+class SmtpRateLimiterTest {
+  private static final long JOIN_TIMEOUT_MS = 2000;
+  private static final long TENTH_OF_A_SECOND = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final AtomicLong now = new AtomicLong();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final List<Thread> senders = new ArrayList<>();
+
+  @AfterEach
+  void stopSenders() {
+    senders.forEach(Thread::interrupt);
+  }
+
+  @Test
+  void burstIsAvailableRightAway() throws InterruptedException {
+    SmtpRateLimiter limiter = limiter(10, 3, 1);
+
+    for (int i = 0; i < 3; i++) {
+      assertFinished(send(limiter, false));
+    }
+    assertWaiting(send(limiter, false), "normal");
+  }
+
+  @Test
+  void tokensRefillWithTheClockUpToTheBurst() throws InterruptedException {
+    SmtpRateLimiter limiter = limiter(10, 2, 1);
+    assertFinished(send(limiter, false));
+    assertFinished(send(limiter, false));
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertFinished(send(limiter, false));
+    assertFinished(send(limiter, false));
+    Thread third = send(limiter, false);
+    assertWaiting(third, "normal");
+
+    now.addAndGet(TENTH_OF_A_SECOND);
+    assertFinished(third);
+  }
+
+  @Test
+  void prioritySenderGetsTheNextToken() throws InterruptedException {
+    SmtpRateLimiter limiter = limiter(10, 1, 1);
+    assertFinished(send(limiter, false));
+    Thread normal = send(limiter, false);
+    assertWaiting(normal, "normal");
+    Thread priority = send(limiter, true);
+    assertWaiting(priority, "priority");
+
+    now.addAndGet(TENTH_OF_A_SECOND);
+    assertFinished(priority);
+    assertWaiting(normal, "normal");
+
+    now.addAndGet(TENTH_OF_A_SECOND);
+    assertFinished(normal);
+  }
+
+  @Test
+  void quotaIsSplitBetweenReplicas() throws InterruptedException {
+    SmtpRateLimiter limiter = limiter(10, 4, 2);
+    assertFinished(send(limiter, false));
+    assertFinished(send(limiter, false));
+    Thread third = send(limiter, false);
+    assertWaiting(third, "normal");
+
+    // half a token at 5 messages per second
+    now.addAndGet(TENTH_OF_A_SECOND);
+    Thread.sleep(300);
+    assertThat(third.isAlive()).isTrue();
+
+    now.addAndGet(TENTH_OF_A_SECOND);
+    assertFinished(third);
+  }
+
+  private SmtpRateLimiter limiter(double messagesPerSecond, int burst, int replicas) {
+    MailRateLimitConfig config = new MailRateLimitConfig();
+    config.setMessagesPerSecond(messagesPerSecond);
+    config.setBurst(burst);
+    config.setReplicas(replicas);
+    return new SmtpRateLimiter(config, meterRegistry, now::get);
+  }
+
+  private Thread send(SmtpRateLimiter limiter, boolean priority) {
+    Thread sender = new Thread(() -> {
+      try {
+        limiter.acquire(priority);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    senders.add(sender);
+    sender.start();
+    return sender;
+  }
+
+  private void assertWaiting(Thread sender, String lane) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + JOIN_TIMEOUT_MS;
+    while (queued(lane) < 1 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(sender.isAlive()).isTrue();
+    assertThat(queued(lane)).isGreaterThanOrEqualTo(1.0);
+  }
+
+  private static void assertFinished(Thread sender) throws InterruptedException {
+    sender.join(JOIN_TIMEOUT_MS);
+    assertThat(sender.isAlive()).isFalse();
+  }
+
+  private double queued(String lane) {
+    return meterRegistry.get("mail.dispatch.queued").tag("lane", lane).gauge().value();
+  }
+}
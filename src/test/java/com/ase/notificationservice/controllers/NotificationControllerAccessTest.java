@@ -0,0 +1,73 @@
+package com.ase.notificationservice.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import com.ase.notificationservice.dtos.MarkAsReadRequestDto;
+import com.ase.notificationservice.services.DigestPreferenceService;
+import com.ase.notificationservice.services.NotificationJobService;
+import com.ase.notificationservice.services.NotificationService;
+
+/**
+ * Tests that the by-user endpoints only act on the calling user.
+ */
+class NotificationControllerAccessTest {
+  private static final String CALLER = "user-1";
+  private static final String OTHER = "user-2";
+  private static final int UPDATED = 3;
+
+  private final Principal principal = () -> CALLER;
+  private NotificationService notificationService;
+  private DigestPreferenceService digestPreferenceService;
+  private NotificationController controller;
+
+  @BeforeEach
+  void setUp() {
+    notificationService = mock(NotificationService.class);
+    digestPreferenceService = mock(DigestPreferenceService.class);
+    controller = new NotificationController(
+        notificationService, mock(NotificationJobService.class), digestPreferenceService);
+  }
+
+  @Test
+  void markingForeignInboxAsReadIsForbidden() {
+    MarkAsReadRequestDto request = new MarkAsReadRequestDto(null, OTHER, null);
+
+    assertThatThrownBy(() -> controller.markAllAsRead(principal, request))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining(HttpStatus.FORBIDDEN.toString());
+    verify(notificationService, never()).markAllAsRead(anyString(), any());
+  }
+
+  @Test
+  void callerMarksOwnInboxAsRead() {
+    when(notificationService.markAllAsRead(eq(CALLER), any(Instant.class))).thenReturn(UPDATED);
+
+    ResponseEntity<Map<String, Integer>> response =
+        controller.markAllAsRead(principal, new MarkAsReadRequestDto(null, CALLER, null));
+
+    assertThat(response.getBody()).containsEntry("updated", UPDATED);
+  }
+
+  @Test
+  void readingForeignDigestPreferenceIsForbidden() {
+    assertThatThrownBy(() -> controller.getDigestPreference(principal, OTHER))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining(HttpStatus.FORBIDDEN.toString());
+    verify(digestPreferenceService, never()).getPreference(anyString());
+  }
+}
@@ -0,0 +1,140 @@
+package com.ase.notificationservice.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Verifies on PostgreSQL that the Flyway migrations create the inbox indexes
+ * and that the queries of {@link NotificationRepository} use them. The SQL
+ * Hibernate generates is captured and explained as a generic plan, which is
+ * what a prepared statement ends up with once its parameters are not
+ * looked at anymore. Skipped when no Docker daemon is available.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.jpa.hibernate.ddl-auto=validate",
+    "spring.flyway.enabled=true",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ase.notificationservice.repositories.NotificationIndexTest$SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationIndexTest {
+  private static final int USERS = 200;
+  private static final int NOTIFICATIONS_PER_USER = 50;
+  private static final int PAGE_SIZE = 20;
+  private static final String USER = "user-42";
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\?");
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:16-alpine");
+
+  @Autowired
+  private NotificationRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+    registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+  }
+
+  /**
+   * Seeds the inbox inside the test transaction, so every test starts from
+   * the same data.
+   */
+  @BeforeEach
+  void seed() {
+    jdbcTemplate.execute("INSERT INTO notification (id, user_id, priority, received_at, read_at) "
+        + "SELECT 'n' || i, 'user-' || (i % " + USERS + "), false, "
+        + "now() - i * interval '1 minute', "
+        + "CASE WHEN i % 10 = 0 THEN NULL ELSE now() END "
+        + "FROM generate_series(1, " + USERS * NOTIFICATIONS_PER_USER + ") AS i");
+    jdbcTemplate.execute("ANALYZE notification");
+  }
+
+  @Test
+  void inboxPageUsesUserReceivedIndex() {
+    String plan = explain(() -> repository.findInboxPage(
+        USER, Instant.EPOCH, PageRequest.of(0, PAGE_SIZE)));
+
+    assertThat(plan).contains("idx_notification_user_received");
+    assertThat(plan).doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void unreadInboxPageUsesPartialIndex() {
+    String plan = explain(() -> repository.findUnreadInboxPage(
+        USER, Instant.EPOCH, PageRequest.of(0, PAGE_SIZE)));
+
+    assertThat(plan).contains("idx_notification_user_unread");
+  }
+
+  @Test
+  void unreadInboxPageAfterCursorUsesPartialIndex() {
+    String plan = explain(() -> repository.findUnreadInboxPageAfter(
+        USER, Instant.EPOCH, Instant.now(), "n1", PageRequest.of(0, PAGE_SIZE)));
+
+    assertThat(plan).contains("idx_notification_user_unread");
+  }
+
+  @Test
+  void unreadCountUsesPartialIndex() {
+    String plan = explain(() -> repository.countUnreadByUserId(USER));
+
+    assertThat(plan).contains("idx_notification_user_unread");
+  }
+
+  /**
+   * Runs the repository call and returns the generic plan of the last query
+   * it sent.
+   */
+  private String explain(Runnable repositoryCall) {
+    SqlCapture.STATEMENTS.clear();
+    repositoryCall.run();
+    assertThat(SqlCapture.STATEMENTS).isNotEmpty();
+    String sql = SqlCapture.STATEMENTS.get(SqlCapture.STATEMENTS.size() - 1);
+
+    AtomicInteger parameter = new AtomicInteger();
+    String numbered = PLACEHOLDER.matcher(sql)
+        .replaceAll(match -> "\\$" + parameter.incrementAndGet());
+    List<String> plan = jdbcTemplate.queryForList(
+        "EXPLAIN (GENERIC_PLAN) " + numbered, String.class);
+    return String.join("\n", plan);
+  }
+
+  /**
+   * Records the SQL Hibernate sends, unchanged.
+   */
+  public static class SqlCapture implements StatementInspector {
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ase.notificationservice.config.DeliveryConfig;
+import com.ase.notificationservice.entities.EmailOutboxEntry;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.OutboxStatus;
+import com.ase.notificationservice.repositories.EmailOutboxRepository;
+import com.ase.notificationservice.repositories.NotificationJobRepository;
+import com.ase.notificationservice.repositories.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for how {@link EmailOutboxDispatcher} claims outbox entries,
+ * sends them and records the outcome of every mail.
+ */
+class EmailOutboxDispatcherTest {
+  private static final String USER = "user-1";
+  private static final String EMAIL = "user-1@example.org";
+  private static final String JOB = "job-1";
+  private static final long RETRY_DELAY_MS = 30000;
+  private static final long LEASE_MS = 300000;
+
+  private EmailOutboxRepository outboxRepository;
+  private NotificationRepository notificationRepository;
+  private NotificationJobRepository jobRepository;
+  private NotificationService notificationService;
+  private UserServiceClient userServiceClient;
+  private DeliveryConfig deliveryConfig;
+  private EmailOutboxDispatcher dispatcher;
+  private final List<EmailOutboxEntry> outbox = new ArrayList<>();
+  private final List<Notification> notifications = new ArrayList<>();
+  /** Whether the fake transaction manager has a transaction open. */
+  private boolean inTransaction;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository = mock(EmailOutboxRepository.class);
+    notificationRepository = mock(NotificationRepository.class);
+    jobRepository = mock(NotificationJobRepository.class);
+    notificationService = mock(NotificationService.class);
+    userServiceClient = mock(UserServiceClient.class);
+    EmailOutboxService emailOutboxService = mock(EmailOutboxService.class);
+
+    // the repository hands out the same objects the test keeps, like one persistence context
+    when(outboxRepository.lockNextBatch(any(), anyInt())).thenAnswer(invocation -> {
+      Instant now = invocation.getArgument(0);
+      return outbox.stream()
+          .filter(entry -> entry.getStatus() == OutboxStatus.Pending
+              || entry.getStatus() == OutboxStatus.Sending)
+          .filter(entry -> !entry.getNextAttemptAt().isAfter(now))
+          .toList();
+    });
+    when(outboxRepository.lockDueDigests(any(), anyInt())).thenReturn(List.of());
+    when(outboxRepository.findAllById(any())).thenAnswer(invocation -> {
+      Set<String> ids = new HashSet<>();
+      invocation.<Iterable<String>>getArgument(0).forEach(ids::add);
+      return outbox.stream().filter(entry -> ids.contains(entry.getId())).toList();
+    });
+    when(notificationRepository.findAllById(any())).thenAnswer(invocation -> notifications);
+    when(userServiceClient.resolveEmails(any())).thenReturn(Map.of(USER, EMAIL));
+    when(emailOutboxService.readVariables(any())).thenReturn(Optional.empty());
+
+    deliveryConfig = new DeliveryConfig();
+    deliveryConfig.setOutboxDispatcherThreads(1);
+    deliveryConfig.setOutboxRetryDelayMs(RETRY_DELAY_MS);
+    deliveryConfig.setOutboxLeaseMs(LEASE_MS);
+    // runs the dispatcher thread on the calling thread
+    dispatcher = new EmailOutboxDispatcher(outboxRepository, notificationRepository,
+        jobRepository, emailOutboxService, notificationService, userServiceClient,
+        deliveryConfig, new TransactionTemplate(new FakeTransactionManager()), Runnable::run,
+        new SimpleMeterRegistry());
+  }
+
+  @Test
+  void entriesAreLeasedWhileTheirMailIsSent() {
+    EmailOutboxEntry entry = queue("n-1");
+    List<OutboxStatus> statusWhileSending = new ArrayList<>();
+    List<Instant> leaseWhileSending = new ArrayList<>();
+    doAnswer(invocation -> {
+      statusWhileSending.add(entry.getStatus());
+      leaseWhileSending.add(entry.getNextAttemptAt());
+      return null;
+    }).when(notificationService).deliverEmail(any(), any(), any(), any());
+
+    Instant before = Instant.now();
+    dispatcher.dispatch();
+
+    assertThat(statusWhileSending).containsExactly(OutboxStatus.Sending);
+    assertThat(leaseWhileSending.get(0))
+        .isBetween(before.plusMillis(LEASE_MS), Instant.now().plusMillis(LEASE_MS));
+    assertThat(entry.getStatus()).isEqualTo(OutboxStatus.Sent);
+    assertThat(entry.getAttempts()).isEqualTo(1);
+    verify(jobRepository).addMailResults(JOB, 1, 0);
+  }
+
+  @Test
+  void addressLookupAndSendHoldNoTransaction() {
+    queue("n-1");
+    queue("n-2");
+    List<Boolean> transactionWhileResolving = new ArrayList<>();
+    List<Boolean> transactionWhileSending = new ArrayList<>();
+    when(userServiceClient.resolveEmails(any())).thenAnswer(invocation -> {
+      transactionWhileResolving.add(inTransaction);
+      return Map.of(USER, EMAIL);
+    });
+    // the SMTP quota is awaited inside the send
+    doAnswer(invocation -> {
+      transactionWhileSending.add(inTransaction);
+      return null;
+    }).when(notificationService).deliverEmail(any(), any(), any(), any());
+
+    dispatcher.dispatch();
+
+    assertThat(transactionWhileResolving).containsExactly(false);
+    assertThat(transactionWhileSending).containsExactly(false, false);
+  }
+
+  @Test
+  void sentMailStaysSentWhenALaterMailFails() {
+    EmailOutboxEntry first = queue("n-1");
+    EmailOutboxEntry second = queue("n-2");
+    doAnswer(invocation -> {
+      if (invocation.<Notification>getArgument(0).getId().equals("n-2")) {
+        throw new IllegalStateException("SMTP server unavailable");
+      }
+      return null;
+    }).when(notificationService).deliverEmail(any(), any(), any(), any());
+
+    Instant before = Instant.now();
+    dispatcher.dispatch();
+
+    assertThat(first.getStatus()).isEqualTo(OutboxStatus.Sent);
+    assertThat(second.getStatus()).isEqualTo(OutboxStatus.Pending);
+    assertThat(second.getAttempts()).isEqualTo(1);
+    assertThat(second.getLastError()).isEqualTo("SMTP server unavailable");
+    assertThat(second.getNextAttemptAt()).isAfterOrEqualTo(before.plusMillis(RETRY_DELAY_MS));
+  }
+
+  @Test
+  void jobCountsFailedMailOnceGivenUp() {
+    EmailOutboxEntry entry = queue("n-1");
+    entry.setAttempts(deliveryConfig.getOutboxMaxAttempts() - 1);
+    doAnswer(invocation -> {
+      throw new IllegalStateException("SMTP server unavailable");
+    }).when(notificationService).deliverEmail(any(), any(), any(), any());
+
+    dispatcher.dispatch();
+
+    assertThat(entry.getStatus()).isEqualTo(OutboxStatus.Failed);
+    verify(jobRepository).addMailResults(JOB, 0, 1);
+  }
+
+  @Test
+  void userServiceFailureCountsAsAttemptWithBackoff() {
+    EmailOutboxEntry entry = queue("n-1");
+    when(userServiceClient.resolveEmails(any()))
+        .thenThrow(new UserServiceException("User service unavailable", null));
+
+    Instant before = Instant.now();
+    dispatcher.dispatch();
+
+    verify(notificationService, never()).deliverEmail(any(), any(), any(), any());
+    assertThat(entry.getStatus()).isEqualTo(OutboxStatus.Pending);
+    assertThat(entry.getAttempts()).isEqualTo(1);
+    assertThat(entry.getNextAttemptAt()).isAfterOrEqualTo(before.plusMillis(RETRY_DELAY_MS));
+    // one failed lookup per poll, not one per due batch
+    verify(userServiceClient).resolveEmails(any());
+  }
+
+  @Test
+  void entryClaimedAgainIsLeftToTheOtherDispatcher() {
+    EmailOutboxEntry entry = queue("n-1");
+    EmailOutboxEntry reclaimed = EmailOutboxEntry.builder()
+        .id(entry.getId())
+        .notificationId(entry.getNotificationId())
+        .jobId(JOB)
+        .status(OutboxStatus.Sending)
+        .attempts(2)
+        .build();
+    // the lease ran out during the send and another dispatcher claimed the entry
+    doAnswer(invocation -> {
+      outbox.set(0, reclaimed);
+      return null;
+    }).when(notificationService).deliverEmail(any(), any(), any(), any());
+
+    dispatcher.dispatch();
+
+    assertThat(reclaimed.getStatus()).isEqualTo(OutboxStatus.Sending);
+    verify(jobRepository, never()).addMailResults(eq(JOB), anyInt(), anyInt());
+  }
+
+  private EmailOutboxEntry queue(String notificationId) {
+    notifications.add(Notification.builder().id(notificationId).userId(USER).build());
+    EmailOutboxEntry entry = EmailOutboxEntry.builder()
+        .id("entry-" + notificationId)
+        .notificationId(notificationId)
+        .jobId(JOB)
+        .userId(USER)
+        .status(OutboxStatus.Pending)
+        .nextAttemptAt(Instant.now().minus(Duration.ofSeconds(1)))
+        .build();
+    outbox.add(entry);
+    return entry;
+  }
+
+  /**
+   * Transaction manager without a database that tracks whether a
+   * transaction is open.
+   */
+  private final class FakeTransactionManager implements PlatformTransactionManager {
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+      inTransaction = true;
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+      inTransaction = false;
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+      inTransaction = false;
+    }
+  }
+}
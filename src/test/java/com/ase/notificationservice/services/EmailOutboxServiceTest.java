@@ -0,0 +1,183 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.ase.notificationservice.config.DeliveryConfig;
+import com.ase.notificationservice.entities.DigestPreference;
+import com.ase.notificationservice.entities.EmailOutboxEntry;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.enums.EmailTemplate;
+import com.ase.notificationservice.enums.OutboxStatus;
+import com.ase.notificationservice.repositories.DigestPreferenceRepository;
+import com.ase.notificationservice.repositories.EmailOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for the digest windows {@link EmailOutboxService} assigns to
+ * new outbox entries.
+ */
+class EmailOutboxServiceTest {
+  private static final String USER = "user-1";
+  private static final int WINDOW_MINUTES = 60;
+  private static final int MAX_SIZE = 2;
+
+  private EmailOutboxRepository outboxRepository;
+  private DigestPreferenceRepository digestPreferenceRepository;
+  private DeliveryConfig deliveryConfig;
+  private EmailOutboxService service;
+  private final List<EmailOutboxEntry> saved = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository = mock(EmailOutboxRepository.class);
+    digestPreferenceRepository = mock(DigestPreferenceRepository.class);
+    deliveryConfig = new DeliveryConfig();
+    when(outboxRepository.saveAll(any())).thenAnswer(invocation -> {
+      List<EmailOutboxEntry> entries = invocation.getArgument(0);
+      saved.addAll(entries);
+      return entries;
+    });
+    service = new EmailOutboxService(
+        outboxRepository, digestPreferenceRepository, deliveryConfig, new ObjectMapper());
+  }
+
+  @Test
+  void firstMailOpensWindowOfPreferredLength() {
+    preferWindow(WINDOW_MINUTES);
+
+    Instant before = Instant.now();
+    enqueue(notification(false), Optional.empty());
+    Instant after = Instant.now();
+
+    EmailOutboxEntry entry = saved.get(0);
+    Duration window = Duration.ofMinutes(WINDOW_MINUTES);
+    assertThat(entry.isDigest()).isTrue();
+    assertThat(entry.getNextAttemptAt())
+        .isBetween(before.plus(window), after.plus(window));
+  }
+
+  @Test
+  void furtherMailsJoinTheOpenWindow() {
+    preferWindow(WINDOW_MINUTES);
+    Instant openUntil = Instant.now().plus(Duration.ofMinutes(5));
+    when(outboxRepository.findDigestWindows(anyCollection(), eq(OutboxStatus.Pending)))
+        .thenReturn(List.of(window(openUntil)));
+
+    enqueue(notification(false), Optional.empty());
+
+    assertThat(saved.get(0).isDigest()).isTrue();
+    assertThat(saved.get(0).getNextAttemptAt()).isEqualTo(openUntil);
+  }
+
+  @Test
+  void priorityMailIsSentRightAway() {
+    preferWindow(WINDOW_MINUTES);
+
+    Instant before = Instant.now();
+    enqueue(notification(true), Optional.empty());
+
+    assertThat(saved.get(0).isDigest()).isFalse();
+    assertThat(saved.get(0).getNextAttemptAt()).isBetween(before, Instant.now());
+  }
+
+  @Test
+  void templatedMailIsSentRightAway() {
+    preferWindow(WINDOW_MINUTES);
+
+    enqueue(notification(false), Optional.of(EmailTemplate.GENERIC));
+
+    assertThat(saved.get(0).isDigest()).isFalse();
+    verify(digestPreferenceRepository, never()).findAllById(any());
+  }
+
+  @Test
+  void userWithoutWindowIsNotBuffered() {
+    when(digestPreferenceRepository.findAllById(any())).thenReturn(List.of());
+
+    enqueue(notification(false), Optional.empty());
+
+    assertThat(saved.get(0).isDigest()).isFalse();
+    verify(outboxRepository, never()).findDigestWindows(anyCollection(), any());
+  }
+
+  @Test
+  void fullDigestIsFlushedRightAway() {
+    deliveryConfig.setDigestMaxSize(MAX_SIZE);
+    preferWindow(WINDOW_MINUTES);
+    when(outboxRepository.findUsersWithDigestSize(
+        anyCollection(), eq(OutboxStatus.Pending), eq((long) MAX_SIZE)))
+        .thenReturn(List.of(USER));
+
+    enqueue(notification(false), Optional.empty());
+
+    verify(outboxRepository).rescheduleDigests(
+        eq(List.of(USER)), eq(OutboxStatus.Pending), any());
+  }
+
+  @Test
+  void digestBelowMaxSizeKeepsItsWindow() {
+    preferWindow(WINDOW_MINUTES);
+    when(outboxRepository.findUsersWithDigestSize(anyCollection(), any(), anyLong()))
+        .thenReturn(List.of());
+
+    enqueue(notification(false), Optional.empty());
+
+    verify(outboxRepository, never()).rescheduleDigests(anyCollection(), any(), any());
+  }
+
+  @Test
+  void maxSizeZeroNeverFlushesEarly() {
+    deliveryConfig.setDigestMaxSize(0);
+    preferWindow(WINDOW_MINUTES);
+
+    enqueue(notification(false), Optional.empty());
+
+    verify(outboxRepository, never()).findUsersWithDigestSize(anyCollection(), any(), anyLong());
+    verify(outboxRepository, never()).rescheduleDigests(anyCollection(), any(), any());
+  }
+
+  private void preferWindow(int minutes) {
+    when(digestPreferenceRepository.findAllById(any())).thenReturn(List.of(
+        DigestPreference.builder().userId(USER).windowMinutes(minutes).build()));
+  }
+
+  private void enqueue(Notification notification, Optional<EmailTemplate> template) {
+    service.enqueue(List.of(notification), template, Optional.empty(), null);
+  }
+
+  private static Notification notification(boolean priority) {
+    return Notification.builder()
+        .id("n-1")
+        .userId(USER)
+        .priority(priority)
+        .build();
+  }
+
+  private static EmailOutboxRepository.DigestWindow window(Instant flushAt) {
+    return new EmailOutboxRepository.DigestWindow() {
+      @Override
+      public String getUserId() {
+        return USER;
+      }
+
+      @Override
+      public Instant getFlushAt() {
+        return flushAt;
+      }
+    };
+  }
+}
@@ -0,0 +1,73 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HtmlToText}.
+ */
+class HtmlToTextTest {
+
+  @Test
+  void decodesEntities() {
+    assertThat(HtmlToText.convert(
+        "Fish &amp; Chips &lt;3 &quot;hot&quot; &#39;now&#39; &#x20AC;5 &#8364;5"))
+        .isEqualTo("Fish & Chips <3 \"hot\" 'now' €5 €5");
+  }
+
+  @Test
+  void keepsUnknownEntitiesAndDropsInvisibleOnes() {
+    assertThat(HtmlToText.convert("caf&eacute; &bogus; a&nbsp;b pre&shy;&zwnj;header"))
+        .isEqualTo("caf&eacute; &bogus; a b preheader");
+  }
+
+  @Test
+  void nestedListsBreakLines() {
+    assertThat(HtmlToText.convert(
+        "<ul><li>One<ul><li>One.a</li><li>One.b</li></ul></li><li>Two</li></ul><p>After</p>"))
+        .isEqualTo("One\n\nOne.a\nOne.b\n\nTwo\n\nAfter");
+  }
+
+  @Test
+  void paragraphsAreSeparatedByABlankLineAndBreaksByANewline() {
+    assertThat(HtmlToText.convert("<p>First</p>\n  <p>Second</p>Line<br>Break<br/><br/>End"))
+        .isEqualTo("First\n\nSecond\n\nLine\nBreak\nEnd");
+  }
+
+  @Test
+  void whitespaceCollapses() {
+    assertThat(HtmlToText.convert("  Hello \n\t  <b>big</b>\n   world  "))
+        .isEqualTo("Hello big world");
+  }
+
+  @Test
+  void linksKeepTheirTarget() {
+    assertThat(HtmlToText.convert(
+        "<p>Open <a class=\"cta\" href=\"https://example.com/x?a=1&amp;b=2\">"
+            + "<span>the inbox</span></a> now</p>"))
+        .isEqualTo("Open the inbox (https://example.com/x?a=1&b=2) now");
+  }
+
+  @Test
+  void linksWhoseTextIsTheTargetOrAnAnchorAreNotRepeated() {
+    assertThat(HtmlToText.convert(
+        "<a href='https://example.com'>https://example.com</a> <a href=\"#top\">Top</a>"))
+        .isEqualTo("https://example.com Top");
+  }
+
+  @Test
+  void headScriptsStylesAndCommentsAreSkipped() {
+    assertThat(HtmlToText.convert("<html><head><title>Title</title><style>p { }</style></head>"
+        + "<body><!-- comment --><script>if (a<b) {}</script>Text</body></html>"))
+        .isEqualTo("Text");
+  }
+
+  @Test
+  void malformedMarkupDoesNotFail() {
+    assertThat(HtmlToText.convert("<div>Unclosed <b>bold<p>para & more <i"))
+        .isEqualTo("Unclosed bold\n\npara & more");
+    assertThat(HtmlToText.convert("Text<!-- never closed")).isEqualTo("Text");
+    assertThat(HtmlToText.convert("<style>never closed")).isEmpty();
+    assertThat(HtmlToText.convert("<a>no target</a>")).isEqualTo("no target");
+  }
+}
@@ -0,0 +1,163 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ase.notificationservice.controllers.NotificationController;
+import com.ase.notificationservice.dtos.NotificationCreationDto;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.entities.NotificationJob;
+import com.ase.notificationservice.enums.JobStatus;
+import com.ase.notificationservice.repositories.NotificationJobRepository;
+
+/**
+ * Unit tests for {@link NotificationJobService} and the {@code async=true}
+ * form of {@code POST /notifications}.
+ */
+class NotificationJobServiceTest {
+  private static final int ERROR_COLUMN_LENGTH = 255;
+
+  private NotificationJobRepository jobRepository;
+  private NotificationService notificationService;
+  private NotificationJobService jobService;
+  private final List<NotificationJob> saved = new ArrayList<>();
+  private final List<Runnable> queued = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    jobRepository = mock(NotificationJobRepository.class);
+    notificationService = mock(NotificationService.class);
+    when(jobRepository.save(any(NotificationJob.class))).thenAnswer(invocation -> {
+      NotificationJob job = invocation.getArgument(0);
+      if (job.getId() == null) {
+        job.setId("job-1");
+      }
+      saved.add(job);
+      return job;
+    });
+    when(jobRepository.findById("job-1")).thenAnswer(invocation -> Optional.of(saved.get(0)));
+    // runs the job on the calling thread
+    jobService = new NotificationJobService(
+        jobRepository, notificationService, transactionTemplate(), Runnable::run);
+  }
+
+  @Test
+  void asyncPostAnswersAcceptedWithPendingJob() throws Exception {
+    jobService = new NotificationJobService(
+        jobRepository, notificationService, transactionTemplate(), queued::add);
+
+    ResponseEntity<?> response = controller().postNotification(
+        new NotificationCreationDto(), true).get();
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(response.getBody()).isInstanceOf(NotificationJob.class);
+    assertThat(((NotificationJob) response.getBody()).getStatus()).isEqualTo(JobStatus.Pending);
+    assertThat(queued).hasSize(1);
+  }
+
+  @Test
+  void jobCompletesWithItsCounts() {
+    NotificationCreationDto dto = new NotificationCreationDto();
+    List<String> recipients = List.of("user-1", "user-2", "user-3");
+    List<Notification> notifications = List.of(
+        Notification.builder().userId("user-1").build(),
+        Notification.builder().userId("user-2").build(),
+        Notification.builder().userId("user-2").build());
+    when(notificationService.resolveRecipients(dto)).thenReturn(recipients);
+    when(notificationService.buildNotifications(dto, recipients)).thenReturn(notifications);
+    when(notificationService.createNotifications(
+        eq(notifications), any(), any(), eq("job-1"))).thenReturn(notifications);
+
+    jobService.submit(dto);
+
+    NotificationJob job = saved.get(saved.size() - 1);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.Completed);
+    assertThat(job.getResolved()).isEqualTo(3);
+    assertThat(job.getPersisted()).isEqualTo(3);
+    assertThat(job.getPushed()).isEqualTo(2);
+    assertThat(job.getFinishedAt()).isNotNull();
+  }
+
+  @Test
+  void jobFailsWhenNotificationsCannotBeSaved() {
+    NotificationCreationDto dto = new NotificationCreationDto();
+    when(notificationService.resolveRecipients(dto)).thenReturn(List.of("user-1"));
+    when(notificationService.buildNotifications(any(), any())).thenReturn(List.of());
+    when(notificationService.createNotifications(any(), any(), any(), any()))
+        .thenThrow(new IllegalStateException("Database unavailable"));
+
+    jobService.submit(dto);
+
+    NotificationJob job = saved.get(saved.size() - 1);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.Failed);
+    assertThat(job.getResolved()).isEqualTo(1);
+    assertThat(job.getErrorMessage()).isEqualTo("Database unavailable");
+  }
+
+  @Test
+  void rejectedAsyncPostAnswersUnavailableAndFailsJob() throws Exception {
+    jobService = new NotificationJobService(jobRepository, notificationService,
+        transactionTemplate(), task -> {
+          throw new TaskRejectedException("Executor is running its limit of 4 tasks");
+        });
+
+    ResponseEntity<?> response = controller().postNotification(
+        new NotificationCreationDto(), true).get();
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    NotificationJob job = saved.get(saved.size() - 1);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.Failed);
+    assertThat(job.getErrorMessage()).startsWith("Rejected: ");
+    assertThat(job.getFinishedAt()).isNotNull();
+  }
+
+  @Test
+  void longErrorMessageIsTruncatedToColumnLength() {
+    NotificationCreationDto dto = new NotificationCreationDto();
+    when(notificationService.resolveRecipients(dto))
+        .thenThrow(new IllegalStateException("x".repeat(2 * ERROR_COLUMN_LENGTH)));
+
+    jobService.submit(dto);
+
+    NotificationJob job = saved.get(saved.size() - 1);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.Failed);
+    assertThat(job.getErrorMessage()).hasSize(ERROR_COLUMN_LENGTH);
+    assertThat(job.getFinishedAt()).isNotNull();
+  }
+
+  @Test
+  void rejectedJobMessageIsTruncatedToColumnLength() {
+    jobService = new NotificationJobService(jobRepository, notificationService,
+        transactionTemplate(), task -> {
+          throw new IllegalStateException("y".repeat(2 * ERROR_COLUMN_LENGTH));
+        });
+
+    assertThatThrownBy(() -> jobService.submit(new NotificationCreationDto()))
+        .isInstanceOf(IllegalStateException.class);
+
+    NotificationJob job = saved.get(saved.size() - 1);
+    assertThat(job.getStatus()).isEqualTo(JobStatus.Failed);
+    assertThat(job.getErrorMessage()).startsWith("Rejected: ").hasSize(ERROR_COLUMN_LENGTH);
+  }
+
+  private NotificationController controller() {
+    return new NotificationController(notificationService, jobService, null);
+  }
+
+  private static TransactionTemplate transactionTemplate() {
+    return new TransactionTemplate(mock(PlatformTransactionManager.class));
+  }
+}
@@ -0,0 +1,135 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import com.ase.notificationservice.config.RepositoryConfig;
+import com.ase.notificationservice.dtos.NotificationPageDto;
+import com.ase.notificationservice.entities.Notification;
+import com.ase.notificationservice.repositories.NotificationRepository;
+
+/**
+ * Tests the keyset pagination of the inbox against the repository queries.
+ */
+@DataJpaTest
+class NotificationServiceInboxTest {
+  private static final String USER = "user-1";
+  private static final Instant RECEIVED_AT = Instant.parse("2025-01-01T12:00:00Z");
+  private static final int PAGE_SIZE = 2;
+
+  @Autowired
+  private NotificationRepository notificationRepository;
+
+  private NotificationService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new NotificationService(
+        notificationRepository, new RepositoryConfig(), null, null, null, null, null);
+  }
+
+  @Test
+  void pagesThroughEqualReceivedAtWithoutSkipsOrDuplicates() {
+    List<Notification> saved = new ArrayList<>();
+    saved.add(save(RECEIVED_AT.plusSeconds(60), null));
+    for (int i = 0; i < 5; i++) {
+      saved.add(save(RECEIVED_AT, null));
+    }
+    saved.add(save(RECEIVED_AT.minusSeconds(60), null));
+    List<String> expected = saved.stream()
+        .sorted(Comparator.comparing(Notification::getReceivedAt)
+            .thenComparing(Notification::getId).reversed())
+        .map(Notification::getId)
+        .toList();
+
+    assertThat(readInbox(false)).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void unreadInboxFollowsTheCursorPastReadNotifications() {
+    Notification first = save(RECEIVED_AT, null);
+    save(RECEIVED_AT.minusSeconds(60), Instant.now());
+    Notification second = save(RECEIVED_AT.minusSeconds(120), null);
+    save(RECEIVED_AT.minusSeconds(180), Instant.now());
+    Notification third = save(RECEIVED_AT.minusSeconds(240), null);
+
+    assertThat(readInbox(true))
+        .containsExactly(first.getId(), second.getId(), third.getId());
+  }
+
+  @Test
+  void lastPageHasNoCursor() {
+    for (int i = 0; i < PAGE_SIZE * 2; i++) {
+      save(RECEIVED_AT.minusSeconds(i), null);
+    }
+
+    NotificationPageDto first =
+        service.getNotificationsForUser(USER, null, PAGE_SIZE, false, null);
+    NotificationPageDto second =
+        service.getNotificationsForUser(USER, first.nextCursor(), PAGE_SIZE, false, null);
+
+    assertThat(first.items()).hasSize(PAGE_SIZE);
+    assertThat(first.nextCursor()).isNotNull().doesNotContain("=", "+", "/");
+    assertThat(second.items()).hasSize(PAGE_SIZE);
+    assertThat(second.nextCursor()).isNull();
+  }
+
+  @Test
+  void emptyInboxHasNoCursor() {
+    NotificationPageDto page = service.getNotificationsForUser(USER, null, null, false, null);
+
+    assertThat(page.items()).isEmpty();
+    assertThat(page.nextCursor()).isNull();
+  }
+
+  @Test
+  void malformedCursorIsRejected() {
+    List<String> cursors = List.of(
+        "not a cursor!",
+        encode("no separator"),
+        encode("yesterday|some-id"));
+
+    for (String cursor : cursors) {
+      assertThatThrownBy(
+          () -> service.getNotificationsForUser(USER, cursor, PAGE_SIZE, false, null))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("Invalid cursor");
+    }
+  }
+
+  private List<String> readInbox(boolean unreadOnly) {
+    List<String> ids = new ArrayList<>();
+    NotificationPageDto page =
+        service.getNotificationsForUser(USER, null, PAGE_SIZE, unreadOnly, null);
+    page.items().forEach(n -> ids.add(n.getId()));
+    while (page.nextCursor() != null) {
+      page = service.getNotificationsForUser(
+          USER, page.nextCursor(), PAGE_SIZE, unreadOnly, null);
+      assertThat(page.items()).isNotEmpty().hasSizeLessThanOrEqualTo(PAGE_SIZE);
+      page.items().forEach(n -> ids.add(n.getId()));
+    }
+    return ids;
+  }
+
+  private Notification save(Instant receivedAt, Instant readAt) {
+    return notificationRepository.saveAndFlush(Notification.builder()
+        .userId(USER)
+        .message("Test-Message")
+        .receivedAt(receivedAt)
+        .readAt(readAt)
+        .build());
+  }
+
+  private static String encode(String raw) {
+    return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,96 @@
+package com.ase.notificationservice.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.ase.notificationservice.components.GetToken;
+import com.ase.notificationservice.config.UserServiceConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests the email cache of {@link UserServiceClient} against a local stand-in
+ * for the user service.
+ */
+class UserServiceClientTest {
+  private static final long REFRESH_MS = 100;
+  private static final long TIMEOUT_MS = 5000;
+  private static final int OK = 200;
+  private static final int UNAVAILABLE = 503;
+  private static final String EMAIL = "ada@example.org";
+
+  private final AtomicInteger status = new AtomicInteger(OK);
+  private final AtomicInteger requests = new AtomicInteger();
+  private HttpServer server;
+  private UserServiceClient client;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/users/", exchange -> {
+      requests.incrementAndGet();
+      byte[] body = ("{\"id\":\"ada\",\"email\":\"" + EMAIL + "\"}")
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      if (status.get() == OK) {
+        exchange.sendResponseHeaders(OK, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+      else {
+        exchange.sendResponseHeaders(status.get(), -1);
+      }
+      exchange.close();
+    });
+    server.start();
+
+    UserServiceConfig config = new UserServiceConfig();
+    config.setUrl("http://localhost:" + server.getAddress().getPort());
+    config.setTimeoutMs((int) TIMEOUT_MS);
+    config.setCacheRefreshMs(REFRESH_MS);
+    GetToken getToken = mock(GetToken.class);
+    when(getToken.getTokenAsync()).thenReturn(CompletableFuture.completedFuture("token"));
+    client = new UserServiceClient(config, getToken, new SimpleMeterRegistry());
+    client.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    client.close();
+    server.stop(0);
+  }
+
+  @Test
+  void failedRefreshKeepsPreviousEmail() throws InterruptedException {
+    assertThat(client.resolveEmails(List.of("ada"))).containsEntry("ada", EMAIL);
+
+    status.set(UNAVAILABLE);
+    Thread.sleep(2 * REFRESH_MS);
+    // the stale address is served while the refresh runs in the background
+    assertThat(client.resolveEmails(List.of("ada"))).containsEntry("ada", EMAIL);
+    awaitRefreshFailed();
+
+    assertThat(client.resolveEmails(List.of("ada"))).containsEntry("ada", EMAIL);
+  }
+
+  private void awaitRefreshFailed() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (requests.get() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(REFRESH_MS / 10);
+    }
+    assertThat(requests.get()).isGreaterThanOrEqualTo(2);
+    // give the cache time to process the failed response
+    Thread.sleep(REFRESH_MS);
+  }
+}